@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.benchmark;
+
+import at.dormancy.Dormancy;
+import at.dormancy.DormancySpringConfig;
+import at.dormancy.entity.Employee;
+import at.dormancy.service.GenericService;
+import at.dormancy.util.PersistenceContextHolder;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for benchmarks running against the persistence unit configured by {@link DormancySpringConfig}.
+ * <p/>
+ * For every trial, a new application context is started and the test data are persisted (see {@link #populate()}).
+ * <br/>
+ * For every iteration, a transaction is started and {@link #prepare()} is invoked e.g., for loading and initializing
+ * the entities. Thus, the benchmarks neither measure the transaction handling nor the lazy loading of the persistence
+ * provider.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+@State(Scope.Thread)
+public abstract class AbstractDormancyBenchmark {
+	protected AnnotationConfigApplicationContext context;
+	protected Dormancy<Object, Object, Object> dormancy;
+	protected GenericService genericService;
+	protected PersistenceContextHolder<?> persistenceContextHolder;
+	protected PlatformTransactionManager transactionManager;
+	protected TransactionStatus transaction;
+	protected Serializable rootId;
+
+	static {
+		// Logging would dominate the measurements
+		Logger.getLogger("at.dormancy").setLevel(org.apache.log4j.Level.WARN);
+	}
+
+	@Setup(Level.Trial)
+	@SuppressWarnings("unchecked")
+	public void setUpTrial() {
+		context = new AnnotationConfigApplicationContext(DormancySpringConfig.class);
+		dormancy = context.getBean(Dormancy.class);
+		dormancy.getConfig().setCloneObjects(true);
+		genericService = context.getBean("genericService", GenericService.class);
+		persistenceContextHolder = context.getBean(PersistenceContextHolder.class);
+		transactionManager = context.getBean(PlatformTransactionManager.class);
+		rootId = populate();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		context.close();
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+		prepare();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		transactionManager.rollback(transaction);
+	}
+
+	/**
+	 * Persists the test data required by the benchmark.
+	 *
+	 * @return the identifier of the root entity (if any)
+	 * @see #populate(int, int)
+	 */
+	@Nullable
+	protected abstract Serializable populate();
+
+	/**
+	 * Prepares the objects to use during the next iteration.<br/>
+	 * This method is invoked within the transaction of the iteration.
+	 */
+	protected void prepare() {
+	}
+
+	/**
+	 * Persists a tree of employees.<br/>
+	 * Every node of the tree has {@code width} subordinates, and the tree has {@code depth} levels below the root.
+	 *
+	 * @param width the number of subordinates per employee
+	 * @param depth the number of levels below the root
+	 * @return the identifier of the root
+	 */
+	@Nonnull
+	protected Serializable populate(int width, int depth) {
+		persistenceContextHolder.open();
+		Employee root = new Employee("root", null);
+		Serializable id = persistenceContextHolder.save(root);
+
+		List<Employee> level = new ArrayList<Employee>();
+		level.add(root);
+		for (int d = 0; d < depth; d++) {
+			List<Employee> next = new ArrayList<Employee>();
+			for (Employee boss : level) {
+				for (int w = 0; w < width; w++) {
+					Employee employee = new Employee(boss.getName() + "." + w, boss);
+					persistenceContextHolder.save(employee);
+					boss.getEmployees().add(employee);
+					next.add(employee);
+				}
+			}
+			level = next;
+		}
+
+		persistenceContextHolder.flush();
+		persistenceContextHolder.close();
+		return id;
+	}
+
+	/**
+	 * Loads the root of the tree and initializes all of its subordinates recursively.
+	 *
+	 * @return the persistent root
+	 */
+	@Nonnull
+	protected Employee loadTree() {
+		Employee root = genericService.get(Employee.class, (Long) rootId);
+		initialize(root);
+		return root;
+	}
+
+	private static void initialize(@Nonnull Employee employee) {
+		for (Employee subordinate : employee.getEmployees()) {
+			initialize(subordinate);
+		}
+	}
+}
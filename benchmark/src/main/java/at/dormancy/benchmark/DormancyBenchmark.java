@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.benchmark;
+
+import at.dormancy.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.io.Serializable;
+
+/**
+ * Measures disconnecting and applying a tree of entities via the public {@link at.dormancy.Dormancy} API.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class DormancyBenchmark extends AbstractDormancyBenchmark {
+	@Param({"10", "100"})
+	public int width;
+	@Param({"1", "2"})
+	public int depth;
+
+	Employee dbRoot;
+	Employee trRoot;
+
+	@Override
+	protected Serializable populate() {
+		return populate(width, depth);
+	}
+
+	@Override
+	protected void prepare() {
+		dbRoot = loadTree();
+		trRoot = dormancy.disconnect(dbRoot);
+	}
+
+	@Benchmark
+	public Employee disconnect() {
+		return dormancy.disconnect(dbRoot);
+	}
+
+	/**
+	 * Applies the disconnected tree, which requires looking up the persistent entities.<br/>
+	 * Note that the persistence context is not cleared because applying changes to uninitialized persistent
+	 * collections is not supported. Thus, the entities are usually retrieved from the persistence context.
+	 *
+	 * @return the merged tree
+	 */
+	@Benchmark
+	public Employee apply() {
+		return dormancy.apply(trRoot);
+	}
+
+	@Benchmark
+	public Employee applyTogether() {
+		return dormancy.apply(trRoot, dbRoot);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.benchmark;
+
+import at.dormancy.entity.Book;
+import at.dormancy.entity.Employee;
+import at.dormancy.util.PendantIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@link at.dormancy.util.AbstractDormancyUtils#findPendant(Object, java.util.Collection)} for looking up
+ * the last element of a collection, and the {@link at.dormancy.util.PendantIndex} for looking up all elements.
+ * <p/>
+ * {@link Employee} overrides {@link Object#equals(Object)}, whereas {@link Book} has to be matched by its identifier.
+ * Since the pendant is removed from the collection, every invocation operates on a fresh copy.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class FindPendantBenchmark extends AbstractDormancyBenchmark {
+	@Param({"10", "100", "1000"})
+	public int size;
+	@Param({"equals", "identifier"})
+	public String matching;
+
+	List<Object> collection;
+	List<Object> objects;
+	Object obj;
+
+	@Override
+	protected Serializable populate() {
+		return null;
+	}
+
+	@Override
+	protected void prepare() {
+		collection = new ArrayList<Object>(size);
+		for (long id = 1; id <= size; id++) {
+			Object elem;
+			if ("equals".equals(matching)) {
+				Employee employee = new Employee(String.valueOf(id), null);
+				employee.setId(id);
+				elem = employee;
+			} else {
+				Book book = new Book(String.valueOf(id));
+				book.setId(id);
+				elem = book;
+			}
+			collection.add(elem);
+		}
+		objects = dormancy.disconnect(collection);
+		obj = objects.get(size - 1);
+	}
+
+	@Benchmark
+	public Object findPendant() {
+		return dormancy.getUtils().findPendant(obj, new ArrayList<Object>(collection));
+	}
+
+	@Benchmark
+	public Object pendantIndex() {
+		PendantIndex<?> index = dormancy.getUtils().createPendantIndex(collection);
+		Object pendant = null;
+		for (Object o : objects) {
+			pendant = index.remove(o);
+		}
+		return pendant;
+	}
+}
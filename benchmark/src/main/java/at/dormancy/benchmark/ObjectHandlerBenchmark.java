@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.benchmark;
+
+import at.dormancy.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the {@link at.dormancy.handler.CollectionHandler}, {@link at.dormancy.handler.MapHandler} and
+ * {@link at.dormancy.handler.ArrayHandler} by disconnecting and applying containers holding the direct subordinates
+ * of the root.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class ObjectHandlerBenchmark extends AbstractDormancyBenchmark {
+	@Param({"10", "100", "1000"})
+	public int width;
+
+	List<Employee> dbList;
+	List<Employee> trList;
+	Map<Long, Employee> dbMap;
+	Map<Long, Employee> trMap;
+	Employee[] dbArray;
+	Employee[] trArray;
+
+	@Override
+	protected Serializable populate() {
+		return populate(width, 1);
+	}
+
+	@Override
+	protected void prepare() {
+		dbList = new ArrayList<Employee>(loadTree().getEmployees());
+		dbMap = new LinkedHashMap<Long, Employee>();
+		for (Employee employee : dbList) {
+			dbMap.put(employee.getId(), employee);
+		}
+		dbArray = dbList.toArray(new Employee[dbList.size()]);
+
+		trList = dormancy.disconnect(dbList);
+		trMap = dormancy.disconnect(dbMap);
+		trArray = dormancy.disconnect(dbArray);
+	}
+
+	@Benchmark
+	public List<Employee> disconnectCollection() {
+		return dormancy.disconnect(dbList);
+	}
+
+	@Benchmark
+	public List<Employee> applyCollection() {
+		return dormancy.apply(trList, dbList);
+	}
+
+	@Benchmark
+	public Map<Long, Employee> disconnectMap() {
+		return dormancy.disconnect(dbMap);
+	}
+
+	@Benchmark
+	public Map<Long, Employee> applyMap() {
+		return dormancy.apply(trMap, dbMap);
+	}
+
+	@Benchmark
+	public Employee[] disconnectArray() {
+		return dormancy.disconnect(dbArray);
+	}
+
+	@Benchmark
+	public Employee[] applyArray() {
+		return dormancy.apply(trArray, dbArray);
+	}
+}
@@ -15,8 +15,11 @@
  */
 package at.dormancy;
 
-import at.dormancy.access.MetadataPropertyAccessor;
+import at.dormancy.access.CopyPlan;
+import at.dormancy.DormancyConfiguration.FlushStrategy;
+import at.dormancy.access.PropertyHandle;
 import at.dormancy.handler.*;
+import at.dormancy.handler.callback.CompletionCallback;
 import at.dormancy.handler.callback.EntityCallback;
 import at.dormancy.handler.registry.ObjectHandlerRegistry;
 import at.dormancy.metadata.ObjectMetadata;
@@ -24,10 +27,18 @@ import at.dormancy.persistence.PersistenceUnitProvider;
 import at.dormancy.util.AbstractDormancyUtils;
 import at.dormancy.util.ClassLookup;
 import at.dormancy.util.DormancyContext;
+import at.dormancy.util.Snapshot;
+import at.dormancy.util.SnapshotCache;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.UnmodifiableIterator;
+import com.google.common.math.IntMath;
 import org.apache.commons.lang.reflect.ConstructorUtils;
 import org.apache.log4j.Logger;
 import org.springframework.beans.BeanUtils;
-import org.springframework.beans.PropertyAccessor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.CollectionFactory;
@@ -38,7 +49,21 @@ import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Disconnects JPA entities and applies changes to their persistence counterparts.
@@ -50,12 +75,18 @@ import java.util.Map;
  */
 public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 	private static final Logger logger = Logger.getLogger(Dormancy.class);
+	private static final int MAX_POOLED_CONTEXT_SIZE = 4096;
 	PersistenceUnitProvider<PU, PC, PMD> persistenceUnitProvider;
 	AbstractDormancyUtils<PU, PC, PMD, PersistenceUnitProvider<PU, PC, PMD>> utils;
 
 	DormancyObjectHandler dormancyObjectHandler = new DormancyObjectHandler();
 	DormancyConfiguration config = new DormancyConfiguration();
 	ObjectHandlerRegistry registry = new ObjectHandlerRegistry(this);
+	SnapshotCache snapshotCache = new SnapshotCache();
+	final ThreadLocal<DormancyContext> contextPool = new ThreadLocal<DormancyContext>();
+	final ThreadLocal<DormancyContext> concurrentContextPool = new ThreadLocal<DormancyContext>();
+	final ThreadLocal<Boolean> parallelWorker = new ThreadLocal<Boolean>();
+	final ThreadLocal<Traversal> traversals = new ThreadLocal<Traversal>();
 
 	@Inject
 	public Dormancy(@Nonnull PersistenceUnitProvider<PU, PC, PMD> persistenceUnitProvider) {
@@ -92,16 +123,130 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 		registry.addObjectHandler(CollectionHandler.class);
 		registry.addObjectHandler(MapHandler.class);
 		registry.addObjectHandler(NullObjectHandler.class);
+
+		if (config.isWarmUp()) {
+			warmUp();
+		}
+	}
+
+	/**
+	 * Resolves the metadata, copy plans, matching strategies and object handlers of all entities known to the
+	 * persistence unit in advance.<br/>
+	 * The entities are processed in parallel by the configured {@link DormancyConfiguration#getExecutorService()
+	 * ExecutorService}. If none is set, a temporary thread pool is used, which is shut down afterwards.
+	 *
+	 * @see DormancyConfiguration#isWarmUp()
+	 */
+	public void warmUp() {
+		Collection<Class<?>> types = utils.getEntityClasses();
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Resolving metadata of %d entities", types.size()));
+		}
+
+		ExecutorService executorService = config.getExecutorService();
+		boolean shutdown = executorService == null;
+		if (shutdown) {
+			int threads = Math.min(Runtime.getRuntime().availableProcessors(), types.size());
+			executorService = Executors.newFixedThreadPool(Math.max(1, threads));
+		}
+
+		List<Future<?>> futures = new ArrayList<Future<?>>(types.size());
+		try {
+			for (final Class<?> type : types) {
+				futures.add(executorService.submit(new Runnable() {
+					@Override
+					public void run() {
+						warmUp(type);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while resolving metadata", e);
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} finally {
+			for (Future<?> future : futures) {
+				future.cancel(false);
+			}
+			if (shutdown) {
+				executorService.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Resolves everything necessary for processing objects of the given type.
+	 *
+	 * @param type the entity type
+	 */
+	protected void warmUp(@Nonnull Class<?> type) {
+		ObjectMetadata metadata = utils.getObjectMetadata(type);
+		utils.getCopyPlan(type, metadata);
+		utils.getMatchingStrategy(type);
+		registry.getObjectHandler(type);
 	}
 
 	@Nullable
 	public <R, O extends R> R disconnect(O dbObj) {
-		return disconnect(dbObj, new DormancyContext());
+		if (dbObj != null && config.getFlushStrategy() == FlushStrategy.OPERATION) {
+			flush();
+		}
+
+		// Parallel processing is not possible if the persistence context is accessed while disconnecting
+		if (config.getExecutorService() != null && config.getFlushStrategy() != FlushStrategy.INTERVAL
+				&& !config.isEvictObjects() && config.getClearInterval() < 1) {
+			DormancyContext ctx = acquireContext(true);
+			try {
+				return disconnect(dbObj, ctx);
+			} catch (SequentialFallbackException e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Disconnecting sequentially because an uninitialized object has been encountered");
+				}
+			} finally {
+				releaseContext(ctx);
+			}
+		}
+
+		DormancyContext ctx = acquireContext();
+		try {
+			return disconnect(dbObj, ctx);
+		} finally {
+			releaseContext(ctx);
+		}
 	}
 
 	@Nullable
-	@SuppressWarnings("unchecked")
 	private <R, O extends R> R disconnect(@Nullable O dbObj, @Nonnull DormancyContext ctx) {
+		Traversal traversal = getTraversal(ctx);
+		boolean owner = traversal == null;
+		if (owner) {
+			traversal = beginTraversal(ctx);
+		}
+		int mark = traversal.size();
+		try {
+			R trObj = visitDisconnect(dbObj, ctx, traversal);
+			traversal.drain();
+			return trObj;
+		} catch (RuntimeException e) {
+			traversal.discard(mark);
+			throw e;
+		} finally {
+			endTraversal(traversal, owner);
+		}
+	}
+
+	/**
+	 * Disconnects the given object without processing its properties immediately.<br/>
+	 * Instead, a task is scheduled that processes them once the current task is finished.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private <R, O extends R> R visitDisconnect(@Nullable final O dbObj, @Nonnull final DormancyContext ctx,
+											   @Nonnull final Traversal traversal) {
 		Map<Object, Object> adjacencyMap = ctx.getAdjacencyMap();
 		if (dbObj == null) {
 			return null;
@@ -109,6 +254,11 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 			return (R) adjacencyMap.get(dbObj);
 		}
 
+		// Initializing objects requires the persistence context, which must not be accessed concurrently
+		if (parallelWorker.get() != null && !utils.isInitialized(dbObj)) {
+			throw new SequentialFallbackException();
+		}
+
 		Class<R> dbType = utils.getClass(dbObj);
 		ObjectHandler<R> handler = registry.getObjectHandler(dbType);
 		if (handler != null) {
@@ -120,34 +270,56 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 		}
 
 
-		R trObj = config.isCloneObjects() || utils.isProxy(dbObj.getClass()) ? (R) createNewObject(dbObj) : dbObj;
-		Class<Object> trType = utils.getClass(trObj);
-		adjacencyMap.put(dbObj, trObj);
+		final R trObj = config.isCloneObjects() || utils.getClass(dbObj) != dbObj.getClass()
+				? (R) createNewObject(dbObj) : dbObj;
+		// The copy is marked as pending before other threads can retrieve it
+		Object previous = ctx.putIfAbsent(dbObj, trObj, traversal);
+		if (previous != null) {
+			return (R) previous;
+		}
 
-		if (config.isFlushAutomatically()) {
-			if (logger.isTraceEnabled()) {
-				logger.trace("Flushing persistence context");
+		traversal.schedule(new Runnable() {
+			@Override
+			public void run() {
+				disconnectProperties(dbObj, trObj, ctx, traversal);
+				traversal.processed(trObj);
 			}
-			utils.flush();
+		});
+		return trObj;
+	}
+
+	private void disconnectProperties(@Nonnull Object dbObj, @Nonnull Object trObj, @Nonnull DormancyContext ctx,
+									  @Nonnull Traversal traversal) {
+		Class<Object> dbType = utils.getClass(dbObj);
+		Class<Object> trType = utils.getClass(trObj);
+		int count = traversal.entities++;
+		if (config.getFlushStrategy() == FlushStrategy.INTERVAL
+				&& count % Math.max(1, config.getFlushInterval()) == 0) {
+			flush();
 		}
 
 		ObjectMetadata trMetadata = getObjectMetadata(ctx, trType);
 		ObjectMetadata dbMetadata = trType == dbType ? trMetadata : getObjectMetadata(ctx, dbType);
 
-		PropertyAccessor dbAccessor = new MetadataPropertyAccessor(dbObj, dbMetadata);
-		PropertyAccessor trAccessor = new MetadataPropertyAccessor(trObj, trMetadata);
+		CopyPlan dbPlan = utils.getCopyPlan(dbType, dbMetadata);
+		CopyPlan trPlan = trType == dbType ? dbPlan : utils.getCopyPlan(trType, trMetadata);
+		Snapshot snapshot = config.isTrackChanges() ? new Snapshot(dbMetadata, dbPlan.size()) : null;
 
-		for (String propertyName : dbMetadata.getProperties()) {
-			Object dbValue = dbAccessor.getPropertyValue(propertyName);
+		for (int i = 0; i < dbPlan.size(); i++) {
+			PropertyHandle dbHandle = dbPlan.getHandle(i);
+			String propertyName = dbHandle.getName();
+			Object dbValue = dbHandle.getValue(dbObj);
 
 			Object trValue = null;
 			if (dbValue != null) {
-				if (utils.isInitialized(dbValue)) {
+				if (isLeaf(dbPlan, i, dbValue)) {
+					trValue = dbValue;
+				} else if (utils.isInitialized(dbValue)) {
 					if (logger.isDebugEnabled()) {
 						logger.debug(String.format("Disconnecting property %s of type %s",
 								propertyName, dbType.getName()));
 					}
-					trValue = disconnect(dbValue, ctx);
+					trValue = visitDisconnect(dbValue, ctx, traversal);
 				} else if (utils.isPersistentCollection(dbValue) && config.isCreateEmptyCollections()) {
 					trValue = dbValue instanceof Map
 							? CollectionFactory.createApproximateMap(dbValue, 0)
@@ -159,10 +331,238 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 				}
 			}
 
-			trAccessor.setPropertyValue(propertyName, trValue);
+			PropertyHandle trHandle = trPlan.getMetadata() == dbMetadata
+					? trPlan.getHandle(i) : trPlan.getHandle(propertyName);
+			trHandle.setValue(trObj, trValue);
+			if (snapshot != null) {
+				snapshot.setValue(i, trValue);
+			}
 		}
 
-		return trObj;
+		if (snapshot != null) {
+			PMD metadata = utils.getMetadata(dbType);
+			Serializable identifier = metadata != null ? utils.getIdentifier(metadata, dbObj) : null;
+			if (identifier != null) {
+				String versionPropertyName = utils.getVersionPropertyName(metadata);
+				Object version = versionPropertyName != null ? getVersion(dbPlan, versionPropertyName, dbObj) : null;
+				snapshotCache.put(dbType, identifier, version, snapshot);
+			}
+		}
+
+		// Release the entity from the persistence context once its properties are disconnected
+		if (config.isEvictObjects()) {
+			if (utils.getMetadata(dbType) != null) {
+				if (logger.isTraceEnabled()) {
+					logger.trace(String.format("Evicting %s", dbObj));
+				}
+				utils.evict(dbObj);
+			}
+		} else if (config.getClearInterval() > 0 && (count + 1) % config.getClearInterval() == 0) {
+			if (logger.isDebugEnabled()) {
+				logger.debug(String.format("Clearing persistence context after %d entities", count + 1));
+			}
+			utils.clear();
+		}
+	}
+
+	/**
+	 * Flushes the current persistence context.
+	 *
+	 * @see DormancyConfiguration#getFlushStrategy()
+	 */
+	public void flush() {
+		if (logger.isTraceEnabled()) {
+			logger.trace("Flushing persistence context");
+		}
+		utils.flush();
+	}
+
+	/**
+	 * Disconnects the given objects and returns the results in the same order.<br/>
+	 * If an {@link DormancyConfiguration#getExecutorService() ExecutorService} is configured and the number of objects
+	 * reaches the {@link DormancyConfiguration#getParallelThreshold() threshold}, the objects are split into chunks,
+	 * which are disconnected in parallel. This requires a {@link DormancyContext#isConcurrent() concurrent} context.
+	 * Objects processed by worker threads are not split again in order to prevent the executor from starving.<br/>
+	 * If disconnecting any of the objects fails, the remaining workers are stopped and this method does not return
+	 * before all of them finished i.e., the context is not modified by any of them afterwards.
+	 *
+	 * @param dbObjs the objects to disconnect
+	 * @param ctx    the context to use
+	 * @return the disconnected objects
+	 */
+	@Nonnull
+	public List<Object> disconnectAll(@Nonnull Collection<?> dbObjs, @Nonnull final DormancyContext ctx) {
+		ExecutorService executorService = config.getExecutorService();
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (executorService == null || threads < 2 || dbObjs.size() < Math.max(2, config.getParallelThreshold())
+				|| !ctx.isConcurrent() || parallelWorker.get() != null) {
+			List<Object> list = new ArrayList<Object>(dbObjs.size());
+			for (Object dbObj : dbObjs) {
+				list.add(disconnect(dbObj, ctx));
+			}
+			return list;
+		}
+
+		int chunkSize = IntMath.divide(dbObjs.size(), threads, RoundingMode.CEILING);
+		List<List<Object>> chunks = Lists.partition(new ArrayList<Object>(dbObjs), chunkSize);
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Disconnecting %d objects in %d chunks", dbObjs.size(), chunks.size()));
+		}
+
+		final AtomicBoolean aborted = new AtomicBoolean();
+		List<Future<List<Object>>> futures = new ArrayList<Future<List<Object>>>(chunks.size() - 1);
+		try {
+			for (final List<Object> chunk : chunks.subList(1, chunks.size())) {
+				futures.add(executorService.submit(new Callable<List<Object>>() {
+					@Override
+					public List<Object> call() {
+						parallelWorker.set(Boolean.TRUE);
+						try {
+							List<Object> list = new ArrayList<Object>(chunk.size());
+							for (Object dbObj : chunk) {
+								if (aborted.get()) {
+									throw new SequentialFallbackException();
+								}
+								list.add(disconnect(dbObj, ctx));
+							}
+							return list;
+						} finally {
+							parallelWorker.remove();
+						}
+					}
+				}));
+			}
+
+			// Process the first chunk in the current thread while waiting for the others
+			List<Object> list = new ArrayList<Object>(dbObjs.size());
+			for (Object dbObj : chunks.get(0)) {
+				list.add(disconnect(dbObj, ctx));
+			}
+			for (Future<List<Object>> future : futures) {
+				list.addAll(future.get());
+			}
+			return list;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while disconnecting objects", e);
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} finally {
+			// Stop the remaining workers (if any) so that none of them modifies the context afterwards
+			aborted.set(true);
+			awaitTermination(futures);
+		}
+	}
+
+	/**
+	 * Waits until the given tasks finished regardless of whether they succeeded or not.<br/>
+	 * The tasks are not cancelled because running tasks would keep running in the background.
+	 */
+	private static void awaitTermination(@Nonnull List<? extends Future<?>> futures) {
+		boolean interrupted = false;
+		for (Future<?> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Disconnects the given objects and passes the results in the same order to the given callback.<br/>
+	 * In contrast to {@link #disconnectAll(Collection, DormancyContext)}, the objects are not necessarily processed
+	 * before this method returns. This allows handlers of collections and maps to process their elements without
+	 * nesting them on the call stack. Thus, the results must not be hashed or compared before they are passed to the
+	 * callback. The callback is not invoked before every result is disconnected completely, which includes objects
+	 * that have already been visited before.
+	 *
+	 * @param dbObjs   the objects to disconnect
+	 * @param ctx      the context to use
+	 * @param callback the callback to invoke once the objects are disconnected completely
+	 */
+	public void disconnectAll(@Nonnull Collection<?> dbObjs, @Nonnull DormancyContext ctx,
+							  @Nonnull CompletionCallback<List<Object>> callback) {
+		Traversal traversal = getTraversal(ctx);
+		boolean owner = traversal == null;
+		if (owner) {
+			traversal = beginTraversal(ctx);
+		}
+		int mark = traversal.size();
+		try {
+			if (config.getExecutorService() != null && ctx.isConcurrent() && parallelWorker.get() == null) {
+				// Parallel processing requires the objects to be processed completely by the worker threads
+				Completion completion = new Completion(disconnectAll(dbObjs, ctx), callback, traversal);
+				completion.ready();
+				traversal.schedule(completion);
+			} else {
+				// The callback is scheduled first so that it is invoked after all tasks scheduled for the objects
+				List<Object> list = new ArrayList<Object>(dbObjs.size());
+				Completion completion = new Completion(list, callback, traversal);
+				traversal.schedule(completion);
+				for (Object dbObj : dbObjs) {
+					list.add(visitDisconnect(dbObj, ctx, traversal));
+				}
+				completion.ready();
+			}
+			if (owner) {
+				traversal.process(mark);
+			}
+		} catch (RuntimeException e) {
+			traversal.discard(mark);
+			throw e;
+		} finally {
+			endTraversal(traversal, owner);
+		}
+	}
+
+	/**
+	 * Returns an {@link Iterator} that disconnects the objects returned by the given iterator lazily i.e., one by one
+	 * whenever the next object is requested.<br/>
+	 * Every object is disconnected separately, hence objects referenced by several of them are not shared. The
+	 * persistence context is cleared periodically as specified by
+	 * {@link DormancyConfiguration#getStreamClearInterval()}. Thus, neither the objects retrieved nor the disconnected
+	 * ones are retained, which keeps the memory consumption constant regardless of the number of objects.
+	 * <p/>
+	 * Note that the persistence context must remain open until iteration is finished.
+	 *
+	 * @param dbObjs the objects to disconnect
+	 * @param <E>    the type of the disconnected objects
+	 * @return the iterator returning the disconnected objects
+	 * @see AbstractDormancyUtils#iterate(Object)
+	 */
+	@Nonnull
+	public <E> Iterator<E> disconnectLazily(@Nonnull final Iterator<?> dbObjs) {
+		return new UnmodifiableIterator<E>() {
+			int count;
+
+			@Override
+			public boolean hasNext() {
+				return dbObjs.hasNext();
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public E next() {
+				int interval = config.getStreamClearInterval();
+				if (interval > 0 && count > 0 && count % interval == 0) {
+					if (logger.isDebugEnabled()) {
+						logger.debug(String.format("Clearing persistence context after %d objects", count));
+					}
+					utils.clear();
+				}
+				count++;
+				return (E) disconnect(dbObjs.next());
+			}
+		};
 	}
 
 	@Nonnull
@@ -178,7 +578,124 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 
 	@Nullable
 	public <O, R extends O> R apply(O trObj) {
-		return apply(trObj, new DormancyContext());
+		DormancyContext ctx = acquireContext();
+		try {
+			if (config.getBatchSize() > 1) {
+				prefetch(trObj, ctx);
+			}
+			return apply(trObj, ctx);
+		} finally {
+			releaseContext(ctx);
+		}
+	}
+
+	/**
+	 * Applies the given objects and replaces them with the results in place.<br/>
+	 * In contrast to applying them one by one, the objects share a single {@link DormancyContext}: the persistent
+	 * counterparts of the entities contained in all of them are retrieved in batches at once, and objects referenced
+	 * by several of them are merged only once so that shared references are preserved.
+	 *
+	 * @param trObjs the objects to apply e.g., the arguments of a method invocation
+	 * @see #applyAll(Object[], DormancyContext)
+	 */
+	public void applyAll(@Nonnull Object[] trObjs) {
+		DormancyContext ctx = acquireContext();
+		try {
+			applyAll(trObjs, ctx);
+		} finally {
+			releaseContext(ctx);
+		}
+	}
+
+	/**
+	 * Applies the given objects using the given {@link DormancyContext} and replaces them with the results in place.
+	 *
+	 * @param trObjs the objects to apply
+	 * @param ctx    the context to share
+	 * @see #applyAll(Object[])
+	 */
+	public void applyAll(@Nonnull Object[] trObjs, @Nonnull DormancyContext ctx) {
+		if (config.getBatchSize() > 1) {
+			prefetch(trObjs, ctx);
+		}
+		for (int i = 0; i < trObjs.length; i++) {
+			trObjs[i] = apply(trObjs[i], ctx);
+		}
+	}
+
+	/**
+	 * Retrieves the persistent counterparts of the entities contained in the given object graph in batches and
+	 * stores them in the given {@link DormancyContext}.<br/>
+	 * Only the given object and the elements of (nested) collections, maps and arrays are considered because their
+	 * persistent counterparts have to be retrieved by their identifier. Entities of the same type are retrieved
+	 * with a single query per {@link DormancyConfiguration#getBatchSize() batch}.
+	 *
+	 * @param trObj the object graph
+	 * @param ctx   the context to populate
+	 * @see AbstractDormancyUtils#findAll(Class, java.util.Collection)
+	 */
+	protected void prefetch(@Nullable Object trObj, @Nonnull DormancyContext ctx) {
+		Map<Class<?>, Set<Serializable>> identifierMap = Maps.newLinkedHashMap();
+		collectIdentifiers(trObj, identifierMap, Sets.newIdentityHashSet());
+
+		for (Map.Entry<Class<?>, Set<Serializable>> entry : identifierMap.entrySet()) {
+			// A single entity is retrieved on demand
+			if (entry.getValue().size() < 2) {
+				continue;
+			}
+
+			Class<?> clazz = entry.getKey();
+			PMD metadata = utils.getMetadata(clazz);
+			for (List<Serializable> ids : Iterables.partition(entry.getValue(), config.getBatchSize())) {
+				if (logger.isDebugEnabled()) {
+					logger.debug(String.format("Attempting to find %d entities of type %s", ids.size(), clazz.getName()));
+				}
+				for (Object dbObj : utils.findAll(clazz, ids)) {
+					Serializable identifier = metadata != null ? utils.getIdentifier(metadata, dbObj) : null;
+					if (identifier != null) {
+						ctx.getPersistentObjects().put(clazz, identifier, dbObj);
+					}
+				}
+			}
+		}
+	}
+
+	private void collectIdentifiers(@Nullable Object trObj, @Nonnull Map<Class<?>, Set<Serializable>> identifierMap,
+									@Nonnull Set<Object> visited) {
+		if (trObj == null || !visited.add(trObj)) {
+			return;
+		}
+
+		if (trObj instanceof Collection) {
+			if (!utils.isPersistentCollection(trObj) || utils.isInitializedPersistentCollection(trObj)) {
+				for (Object element : (Collection<?>) trObj) {
+					collectIdentifiers(element, identifierMap, visited);
+				}
+			}
+		} else if (trObj instanceof Map) {
+			if (!utils.isPersistentCollection(trObj) || utils.isInitializedPersistentCollection(trObj)) {
+				for (Map.Entry<?, ?> entry : ((Map<?, ?>) trObj).entrySet()) {
+					collectIdentifiers(entry.getKey(), identifierMap, visited);
+					collectIdentifiers(entry.getValue(), identifierMap, visited);
+				}
+			}
+		} else if (trObj instanceof Object[]) {
+			for (Object element : (Object[]) trObj) {
+				collectIdentifiers(element, identifierMap, visited);
+			}
+		} else {
+			Class<?> clazz = utils.getClass(trObj);
+			PMD metadata = utils.getMetadata(clazz);
+			Serializable identifier = metadata != null ? utils.getIdentifier(metadata, trObj) : null;
+			if (identifier != null) {
+				Set<Serializable> identifiers = identifierMap.get(clazz);
+				if (identifiers == null) {
+					identifiers = Sets.newLinkedHashSet();
+					identifierMap.put(clazz, identifiers);
+				}
+				identifiers.add(identifier);
+			}
+		}
 	}
 
 	@Nullable
@@ -198,10 +715,14 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 				logger.debug(String.format("Invoking ObjectHandler %s for applying changes on type %s",
 						handler.getClass().getSimpleName(), trType.getName()));
 			}
-			return handler.apply(trObj, dbObj, new DormancyContext());
 		}
 
-		return apply(trObj, dbObj, new DormancyContext());
+		DormancyContext ctx = acquireContext();
+		try {
+			return handler != null ? handler.apply(trObj, dbObj, ctx) : apply(trObj, dbObj, ctx);
+		} finally {
+			releaseContext(ctx);
+		}
 	}
 
 	/**
@@ -220,8 +741,54 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 	}
 
 	@Nullable
-	@SuppressWarnings("unchecked")
 	private <O, R extends O> R apply(@Nullable O trObj, @Nonnull DormancyContext ctx) {
+		Traversal traversal = getTraversal(ctx);
+		boolean owner = traversal == null;
+		if (owner) {
+			traversal = beginTraversal(ctx);
+		}
+		int mark = traversal.size();
+		try {
+			R dbObj = visitApply(trObj, ctx, traversal);
+			traversal.drain();
+			return dbObj;
+		} catch (RuntimeException e) {
+			traversal.discard(mark);
+			throw e;
+		} finally {
+			endTraversal(traversal, owner);
+		}
+	}
+
+	@Nullable
+	private <O, R extends O> R apply(@Nullable O trObj, @Nullable R dbObj, @Nonnull DormancyContext ctx) {
+		Traversal traversal = getTraversal(ctx);
+		boolean owner = traversal == null;
+		if (owner) {
+			traversal = beginTraversal(ctx);
+		}
+		int mark = traversal.size();
+		try {
+			R result = visitApply(trObj, dbObj, ctx, traversal);
+			traversal.drain();
+			return result;
+		} catch (RuntimeException e) {
+			traversal.discard(mark);
+			throw e;
+		} finally {
+			endTraversal(traversal, owner);
+		}
+	}
+
+	/**
+	 * Retrieves the persistent counterpart of the given object and applies its changes.
+	 *
+	 * @see #visitApply(Object, Object, DormancyContext, Traversal)
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private <O, R extends O> R visitApply(@Nullable O trObj, @Nonnull DormancyContext ctx,
+										  @Nonnull Traversal traversal) {
 		Map<Object, Object> adjacencyMap = ctx.getAdjacencyMap();
 		if (trObj == null) {
 			return null;
@@ -265,18 +832,26 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 			logger.debug(String.format("Attempting to find entity %s with identifier %s",
 					clazz.getName(), identifier));
 		}
-		R dbObj = utils.find(clazz, identifier);
+		R dbObj = (R) ctx.getPersistentObject(clazz, identifier);
+		if (dbObj == null) {
+			dbObj = utils.find(clazz, identifier);
+		}
 		if (dbObj == null) {
 			// Throw an exception indicating that the persistent object cannot be retrieved.
 			throw utils.exceptions().throwEntityNotFoundException(identifier, trObj);
 		}
 
-		return apply(trObj, dbObj, ctx);
+		return visitApply(trObj, dbObj, ctx, traversal);
 	}
 
+	/**
+	 * Applies the changes of the given object without processing its properties immediately.<br/>
+	 * Instead, a task is scheduled that processes them once the current task is finished.
+	 */
 	@Nullable
 	@SuppressWarnings("unchecked")
-	private <O, R extends O> R apply(@Nullable O trObj, @Nullable R dbObj, @Nonnull DormancyContext ctx) {
+	private <O, R extends O> R visitApply(@Nullable final O trObj, @Nullable final R dbObj,
+										  @Nonnull final DormancyContext ctx, @Nonnull final Traversal traversal) {
 		Map<Object, Object> adjacencyMap = ctx.getAdjacencyMap();
 		if (trObj == null || dbObj == null) {
 			return dbObj;
@@ -300,10 +875,8 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 		}
 
 
-		ObjectMetadata objectMetadata = getObjectMetadata(ctx, utils.getClass(dbObj));
-
-		MetadataPropertyAccessor dbAccessor = new MetadataPropertyAccessor(dbObj, objectMetadata);
-		MetadataPropertyAccessor trAccessor = new MetadataPropertyAccessor(trObj, objectMetadata);
+		Class<R> dbType = utils.getClass(dbObj);
+		ObjectMetadata objectMetadata = getObjectMetadata(ctx, dbType);
 
 		PMD metadata = utils.getMetadata(dbObj);
 		if (metadata == null) {
@@ -319,7 +892,7 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 			return dbObj;
 		}
 
-		Serializable identifier = utils.getIdentifier(metadata, dbObj);
+		final Serializable identifier = utils.getIdentifier(metadata, dbObj);
 		if (identifier == null) {
 			// Throw an exception indicating that the entity should have be saved before
 			throw utils.exceptions().throwNullIdentifierException(trObj);
@@ -329,43 +902,247 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 			throw utils.exceptions().throwLazyInitializationException(dbObj);
 		}
 
-		String versionPropertyName = utils.getVersionPropertyName(metadata);
+		final CopyPlan dbPlan = utils.getCopyPlan(dbType, objectMetadata);
+		final CopyPlan trPlan = utils.getCopyPlan(trType, objectMetadata);
+
+		final String versionPropertyName = utils.getVersionPropertyName(metadata);
 		if (config.isCheckVersion() && utils.isVersioned(metadata)) {
 			if (logger.isTraceEnabled()) {
 				logger.trace(String.format("Checking version property '%s' of %s", versionPropertyName, trObj));
 			}
-			Object dbValue = dbAccessor.getPropertyValue(versionPropertyName);
-			Object trValue = trAccessor.getPropertyValue(versionPropertyName);
+			Object dbValue = getVersion(dbPlan, versionPropertyName, dbObj);
+			Object trValue = getVersion(trPlan, versionPropertyName, trObj);
 			if (dbValue != null && !dbValue.equals(trValue)) {
 				throw utils.exceptions().throwOptimisticLockException(dbValue, identifier);
 			}
 		}
 
-		for (String propertyName : objectMetadata.getProperties()) {
+		traversal.schedule(dbObj, new Runnable() {
+			@Override
+			public void run() {
+				applyProperties(trObj, dbObj, identifier, versionPropertyName, dbPlan, trPlan, ctx, traversal);
+				traversal.processed(dbObj);
+			}
+		});
+		return dbObj;
+	}
+
+	private void applyProperties(@Nonnull Object trObj, @Nonnull Object dbObj, @Nonnull Serializable identifier,
+								 @Nullable String versionPropertyName, @Nonnull CopyPlan dbPlan,
+								 @Nonnull CopyPlan trPlan, @Nonnull DormancyContext ctx,
+								 @Nonnull Traversal traversal) {
+		// Only apply the properties that changed since the entity was disconnected (if its snapshot is available)
+		ObjectMetadata objectMetadata = dbPlan.getMetadata();
+		Snapshot snapshot = null, applied = null;
+		Object version = null;
+		if (config.isTrackChanges()) {
+			version = versionPropertyName != null ? getVersion(trPlan, versionPropertyName, trObj) : null;
+			snapshot = snapshotCache.get(dbPlan.getType(), identifier, version);
+			if (snapshot != null && snapshot.getMetadata() != objectMetadata) {
+				snapshot = null;
+			}
+			applied = new Snapshot(objectMetadata, dbPlan.size());
+		}
+
+		// Both plans are based on the same metadata, hence the properties are in the same order
+		for (int i = 0; i < dbPlan.size(); i++) {
+			PropertyHandle dbHandle = dbPlan.getHandle(i);
+			String propertyName = dbHandle.getName();
 			// Do not apply the version property if version checking is enabled
 			if (propertyName.equals(versionPropertyName) && config.isCheckVersion()) {
 				continue;
 			}
 
-			Object trValue = trAccessor.getPropertyValue(propertyName);
-			Object dbValue = dbAccessor.getPropertyValue(propertyName);
+			Object trValue = trPlan.getHandle(i).getValue(trObj);
+			if (applied != null) {
+				applied.setValue(i, trValue);
+			}
+			if (snapshot != null && snapshot.isUnchanged(i, trValue)) {
+				if (logger.isTraceEnabled()) {
+					logger.trace(String.format("Skipping unchanged property %s of %s", propertyName, trObj));
+				}
+				continue;
+			}
+			Object dbValue = dbHandle.getValue(dbObj);
 
 			if (trValue != null && trValue != dbValue) {
 				if (logger.isTraceEnabled()) {
 					logger.trace(String.format("Processing property %s of %s - applying %s",
 							propertyName, trObj, trValue));
 				} else if (logger.isDebugEnabled()) {
-					logger.debug(String.format("Processing property %s of type %s", propertyName, trType.getName()));
+					logger.debug(String.format("Processing property %s of type %s",
+							propertyName, trPlan.getType().getName()));
+				}
+				if (!isLeaf(trPlan, i, trValue)) {
+					trValue = visitApply(trValue, dbValue, ctx, traversal);
 				}
-				trValue = apply(trValue, dbValue, ctx);
 
 				if (trValue != dbValue) {
-					dbAccessor.setPropertyValue(propertyName, trValue);
+					dbHandle.setValue(dbObj, trValue);
 				}
 			}
 		}
 
-		return dbObj;
+		if (applied != null) {
+			// The applied values are the state known by the client as soon as they are committed
+			snapshotCache.putAfterCommit(dbPlan.getType(), identifier, version, applied);
+		}
+	}
+
+	/**
+	 * Reads the version of the given entity.<br/>
+	 * If the version property is not part of the given plan e.g., because custom metadata omit it, the plan based on
+	 * the default metadata of the entity type is used instead.
+	 *
+	 * @param plan                the plan of the entity
+	 * @param versionPropertyName the name of the version property
+	 * @param obj                 the entity
+	 * @return the version of the entity
+	 */
+	@Nullable
+	private Object getVersion(@Nonnull CopyPlan plan, @Nonnull String versionPropertyName, @Nonnull Object obj) {
+		PropertyHandle handle = plan.findHandle(versionPropertyName);
+		if (handle == null) {
+			Class<?> type = plan.getType();
+			handle = utils.getCopyPlan(type, utils.getObjectMetadata(type)).getHandle(versionPropertyName);
+		}
+		return handle.getValue(obj);
+	}
+
+	/**
+	 * Checks whether the given value of a property can be copied as it is.<br/>
+	 * This is the case if the property is a {@link CopyPlan#isLeaf(int) leaf} and its value is processed by the
+	 * {@link BasicTypeHandler}, which neither copies nor traverses objects. Hence, neither a handler has to be invoked
+	 * nor the value has to be stored in the {@link DormancyContext}.
+	 *
+	 * @param plan  the plan of the object holding the property
+	 * @param index the position of the property
+	 * @param value the value of the property
+	 * @return {@code true} if the value can be copied as it is, {@code false} otherwise
+	 */
+	private boolean isLeaf(@Nonnull CopyPlan plan, int index, @Nonnull Object value) {
+		if (!plan.isLeaf(index)) {
+			return false;
+		}
+		ObjectHandler<?> handler = registry.getObjectHandler(value.getClass());
+		return handler != null && handler.getClass() == BasicTypeHandler.class;
+	}
+
+	/**
+	 * Applies the changes of the given objects and passes the results in the same order to the given callback.<br/>
+	 * The persistent counterpart of every object is either given at the same position or retrieved on-demand if the
+	 * given one is {@code null}. The objects are not necessarily processed before this method returns. This allows
+	 * handlers of collections and maps to process their elements without nesting them on the call stack. Thus, the
+	 * results must not be hashed or compared before they are passed to the callback. The callback is not invoked
+	 * before every result is processed completely, which includes objects that have already been visited before.
+	 *
+	 * @param trObjs   the objects to apply
+	 * @param dbObjs   the persistent counterparts (may contain {@code null} elements)
+	 * @param ctx      the context to use
+	 * @param callback the callback to invoke once the changes are applied completely
+	 */
+	public void applyAll(@Nonnull List<?> trObjs, @Nonnull List<?> dbObjs, @Nonnull DormancyContext ctx,
+						 @Nonnull CompletionCallback<List<Object>> callback) {
+		Traversal traversal = getTraversal(ctx);
+		boolean owner = traversal == null;
+		if (owner) {
+			traversal = beginTraversal(ctx);
+		}
+		int mark = traversal.size();
+		try {
+			// The callback is scheduled first so that it is invoked after all tasks scheduled for the objects
+			List<Object> list = new ArrayList<Object>(trObjs.size());
+			Completion completion = new Completion(list, callback, traversal);
+			traversal.schedule(completion);
+			for (int i = 0; i < trObjs.size(); i++) {
+				Object trObj = trObjs.get(i);
+				Object dbObj = dbObjs.get(i);
+				if (trObj == null) {
+					list.add(null);
+				} else {
+					list.add(dbObj == null ? visitApply(trObj, ctx, traversal)
+							: visitApply(trObj, dbObj, ctx, traversal));
+				}
+			}
+			completion.ready();
+			if (owner) {
+				traversal.process(mark);
+			}
+		} catch (RuntimeException e) {
+			traversal.discard(mark);
+			throw e;
+		} finally {
+			endTraversal(traversal, owner);
+		}
+	}
+
+	@Nullable
+	private Traversal getTraversal(@Nonnull DormancyContext ctx) {
+		Traversal traversal = traversals.get();
+		return traversal != null && traversal.ctx == ctx ? traversal : null;
+	}
+
+	@Nonnull
+	private Traversal beginTraversal(@Nonnull DormancyContext ctx) {
+		Traversal traversal = new Traversal(ctx, traversals.get());
+		traversals.set(traversal);
+		return traversal;
+	}
+
+	private void endTraversal(@Nonnull Traversal traversal, boolean owner) {
+		if (!owner) {
+			return;
+		} else if (traversal.previous != null) {
+			traversals.set(traversal.previous);
+		} else {
+			traversals.remove();
+		}
+	}
+
+	/**
+	 * Returns a {@link DormancyContext} for a single operation of the current thread.<br/>
+	 * If the context of a previous operation has been {@link #releaseContext(DormancyContext) released}, it is reused.
+	 * Otherwise (e.g., when operations are nested), a new context is created.
+	 *
+	 * @return the context to use
+	 */
+	@Nonnull
+	public DormancyContext acquireContext() {
+		return acquireContext(false);
+	}
+
+	/**
+	 * Returns a {@link DormancyContext} for a single operation of the current thread.<br/>
+	 * Concurrent contexts are pooled separately from other contexts.
+	 *
+	 * @param concurrent {@code true} if the context is shared by multiple threads, {@code false} otherwise
+	 * @return the context to use
+	 * @see #acquireContext()
+	 * @see DormancyContext#isConcurrent()
+	 */
+	@Nonnull
+	public DormancyContext acquireContext(boolean concurrent) {
+		ThreadLocal<DormancyContext> pool = concurrent ? concurrentContextPool : contextPool;
+		DormancyContext ctx = pool.get();
+		if (ctx == null) {
+			return concurrent ? new DormancyContext(MAX_POOLED_CONTEXT_SIZE, true) : new DormancyContext();
+		}
+		pool.remove();
+		return ctx;
+	}
+
+	/**
+	 * Resets the given {@link DormancyContext} and keeps it for subsequent operations of the current thread.<br/>
+	 * Contexts used for very large object graphs are discarded in order to release their memory.
+	 *
+	 * @param ctx the context that is no longer used
+	 * @see #acquireContext()
+	 */
+	public void releaseContext(@Nonnull DormancyContext ctx) {
+		if (ctx.getAdjacencyMap().size() <= MAX_POOLED_CONTEXT_SIZE) {
+			ctx.reset();
+			(ctx.isConcurrent() ? concurrentContextPool : contextPool).set(ctx);
+		}
 	}
 
 	@Nonnull
@@ -388,6 +1165,15 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 		initialize();
 	}
 
+	/**
+	 * Returns an {@link ObjectHandler} that delegates to this instance e.g., for processing the nested objects of a
+	 * custom handler.<br/>
+	 * Its results are processed completely before they are returned. This includes objects that have been visited
+	 * before. The only exception is an object whose processing is still in progress further up the call stack, e.g.
+	 * the object of a cycle, which is populated after the calling handler returns.
+	 *
+	 * @return the object handler
+	 */
 	@Nonnull
 	public DormancyObjectHandler asObjectHandler() {
 		return dormancyObjectHandler;
@@ -398,6 +1184,11 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 		return registry;
 	}
 
+	@Nonnull
+	public SnapshotCache getSnapshotCache() {
+		return snapshotCache;
+	}
+
 	@Nonnull
 	public DormancyConfiguration getConfig() {
 		return config;
@@ -439,4 +1230,165 @@ public class Dormancy<PU, PC, PMD> implements ApplicationContextAware {
 					: Dormancy.this.apply(trObj, dbObj, ctx);
 		}
 	}
+
+	/**
+	 * Keeps track of the objects to process for a single {@link DormancyContext} in the current thread.
+	 * <p/>
+	 * Instead of processing the properties of an object recursively, a task is pushed onto an explicit stack. Thus,
+	 * the depth of the call stack does not depend on the depth of the object graph. A task pushed before the tasks of
+	 * certain objects is invoked after all of them (including the tasks they pushed) are finished.<br/>
+	 * However, an object might have been visited before i.e., its task has been pushed earlier and is still pending.
+	 * Thus, a task can {@link #await(Object, Runnable) wait} until such an object is processed.
+	 */
+	static final class Traversal {
+		final DormancyContext ctx;
+		final Traversal previous;
+		final ArrayDeque<Runnable> stack = new ArrayDeque<Runnable>();
+		final Map<Object, List<Runnable>> waiters = new IdentityHashMap<Object, List<Runnable>>();
+		int entities;
+
+		Traversal(@Nonnull DormancyContext ctx, @Nullable Traversal previous) {
+			this.ctx = ctx;
+			this.previous = previous;
+		}
+
+		int size() {
+			return stack.size();
+		}
+
+		void schedule(@Nonnull Runnable task) {
+			stack.push(task);
+		}
+
+		/**
+		 * Schedules the task processing the properties of the given object, which is pending until then.
+		 *
+		 * @see #processed(Object)
+		 */
+		void schedule(@Nonnull Object obj, @Nonnull Runnable task) {
+			ctx.setPending(obj, this);
+			stack.push(task);
+		}
+
+		/**
+		 * Marks the given object as processed and schedules the tasks waiting for it.
+		 */
+		void processed(@Nonnull Object obj) {
+			ctx.removePending(obj);
+			List<Runnable> tasks = waiters.isEmpty() ? null : waiters.remove(obj);
+			if (tasks != null) {
+				for (Runnable task : tasks) {
+					stack.push(task);
+				}
+			}
+		}
+
+		/**
+		 * Defers the given task until the given pending object is processed.
+		 */
+		void await(@Nonnull Object obj, @Nonnull Runnable task) {
+			List<Runnable> tasks = waiters.get(obj);
+			if (tasks == null) {
+				tasks = new ArrayList<Runnable>(1);
+				waiters.put(obj, tasks);
+			}
+			tasks.add(task);
+		}
+
+		/**
+		 * Runs the pending tasks until only the given number of tasks is left.
+		 */
+		void process(int mark) {
+			while (stack.size() > mark) {
+				stack.pop().run();
+			}
+		}
+
+		/**
+		 * Runs all pending tasks including those scheduled by outer operations.<br/>
+		 * This is necessary before returning an object to a handler because it might reference objects, which have
+		 * been visited before but are not processed yet. Only objects that are being processed by one of the tasks
+		 * currently running (i.e., objects of a cycle) remain incomplete.
+		 */
+		void drain() {
+			process(0);
+		}
+
+		/**
+		 * Discards the pending tasks until only the given number of tasks is left.
+		 */
+		void discard(int mark) {
+			while (stack.size() > mark) {
+				stack.pop();
+			}
+		}
+	}
+
+	/**
+	 * Passes the results of a traversal to a {@link CompletionCallback} as soon as none of them is pending anymore.
+	 * <p/>
+	 * The task is scheduled before the results are visited. If a nested operation {@link Traversal#drain() drains}
+	 * the traversal in the meantime, the task is deferred until all results are known.
+	 */
+	final class Completion implements Runnable {
+		final List<Object> results;
+		final CompletionCallback<List<Object>> callback;
+		final Traversal traversal;
+		boolean ready;
+		boolean deferred;
+		int next;
+
+		Completion(@Nonnull List<Object> results, @Nonnull CompletionCallback<List<Object>> callback,
+				   @Nonnull Traversal traversal) {
+			this.results = results;
+			this.callback = callback;
+			this.traversal = traversal;
+		}
+
+		/**
+		 * Indicates that all results are known.<br/>
+		 * If the task has already been run, it is scheduled again. All tasks on the stack have been scheduled after
+		 * the traversal was drained, so the task is placed below them in order to be invoked after all of them.
+		 */
+		void ready() {
+			ready = true;
+			if (deferred) {
+				deferred = false;
+				traversal.stack.addLast(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			if (!ready) {
+				deferred = true;
+				return;
+			}
+			for (; next < results.size(); next++) {
+				Object result = results.get(next);
+				Object owner = result != null ? traversal.ctx.getPendingOwner(result) : null;
+				if (owner == traversal) {
+					// The callback might hash the result, which must not happen before its properties are processed
+					traversal.await(result, this);
+					return;
+				} else if (owner != null && traversal.ctx.isConcurrent()) {
+					// Another thread is processing the result, which cannot be awaited without blocking
+					throw new SequentialFallbackException();
+				}
+			}
+			callback.complete(results);
+		}
+	}
+
+	/**
+	 * Indicates that an object graph cannot be disconnected in parallel.
+	 */
+	static class SequentialFallbackException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
 }
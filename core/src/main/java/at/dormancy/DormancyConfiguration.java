@@ -15,20 +15,49 @@
  */
 package at.dormancy;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * The configuration for {@link Dormancy}.
  *
  * @author Gregor Schauer
  */
 public class DormancyConfiguration {
+	public enum FlushStrategy {
+		/**
+		 * Never flushes the persistence context.
+		 */
+		NONE,
+		/**
+		 * Flushes the persistence context once before an object graph is disconnected.
+		 */
+		OPERATION,
+		/**
+		 * Flushes the persistence context before the first and every {@link #getFlushInterval() n-th} entity of an
+		 * object graph is disconnected.
+		 */
+		INTERVAL,
+		/**
+		 * Flushes the persistence context once per invocation of a persistence endpoint i.e., after the method
+		 * returns and before its result (if any) is disconnected.
+		 *
+		 * @see at.dormancy.aop.DormancyAdvisor
+		 */
+		INVOCATION
+	}
+
 	/**
 	 * Enables version checking for Hibernate entities
 	 */
 	private boolean checkVersion = true;
 	/**
-	 * Automatically flushes the current persistence context after cloning
+	 * Determines when the current persistence context is flushed before disconnecting objects
+	 */
+	private FlushStrategy flushStrategy = FlushStrategy.NONE;
+	/**
+	 * The number of entities after which the persistence context is flushed again
 	 */
-	private boolean flushAutomatically = false;
+	private int flushInterval = 100;
 	/**
 	 * Enables cloning of objects instead of modifying them
 	 */
@@ -37,6 +66,38 @@ public class DormancyConfiguration {
 	 * Attempts to create empty collections/maps for uninitialized persistent collections
 	 */
 	private boolean createEmptyCollections = true;
+	/**
+	 * The maximum number of entities to retrieve with a single query before applying changes
+	 */
+	private int batchSize = 100;
+	/**
+	 * Records the state of disconnected entities for skipping unchanged immutable properties when applying them
+	 */
+	private boolean trackChanges = false;
+	/**
+	 * Disconnects the elements of large collections, maps and arrays in parallel (if set)
+	 */
+	private ExecutorService executorService;
+	/**
+	 * The minimum number of elements for disconnecting them in parallel
+	 */
+	private int parallelThreshold = 1000;
+	/**
+	 * The number of streamed objects after which the persistence context is cleared
+	 */
+	private int streamClearInterval = 1000;
+	/**
+	 * Evicts entities from the persistence context once they are disconnected
+	 */
+	private boolean evictObjects = false;
+	/**
+	 * The number of disconnected entities after which the persistence context is cleared
+	 */
+	private int clearInterval = 0;
+	/**
+	 * Resolves the metadata of all entities during initialization
+	 */
+	private boolean warmUp = false;
 
 	/**
 	 * Returns whether a version check should be performed before processing the properties.
@@ -59,23 +120,75 @@ public class DormancyConfiguration {
 	}
 
 	/**
-	 * Returns whether automatic flushing is done upon cloning objects.
+	 * Returns whether automatic flushing is done upon disconnecting objects.
 	 * <p/>
 	 * <p>Default is {@code false}.</p>
 	 *
 	 * @return {@code true} if automatic flushing is enabled, {@code false} otherwise
+	 * @see #getFlushStrategy()
 	 */
 	public boolean isFlushAutomatically() {
-		return flushAutomatically;
+		return flushStrategy != FlushStrategy.NONE;
 	}
 
 	/**
-	 * Sets whether automatic flushing should be done upon cloning objects.
+	 * Sets whether automatic flushing should be done upon disconnecting objects.<br/>
+	 * If enabled and no other {@link FlushStrategy} is set, the persistence context is flushed once per
+	 * {@link FlushStrategy#OPERATION operation}.
 	 *
 	 * @param flushAutomatically {@code true} if automatic flushing should be enabled, {@code false} otherwise
+	 * @see #setFlushStrategy(FlushStrategy)
 	 */
 	public void setFlushAutomatically(boolean flushAutomatically) {
-		this.flushAutomatically = flushAutomatically;
+		if (!flushAutomatically) {
+			flushStrategy = FlushStrategy.NONE;
+		} else if (flushStrategy == FlushStrategy.NONE) {
+			flushStrategy = FlushStrategy.OPERATION;
+		}
+	}
+
+	/**
+	 * Returns when the current persistence context is flushed before disconnecting objects.<br/>
+	 * Since the costs of flushing are proportional to the number of managed entities, flushing should be done as
+	 * rarely as possible.
+	 * <p/>
+	 * <p>Default is {@link FlushStrategy#NONE}.</p>
+	 *
+	 * @return the flush strategy
+	 */
+	public FlushStrategy getFlushStrategy() {
+		return flushStrategy;
+	}
+
+	/**
+	 * Sets when the current persistence context should be flushed before disconnecting objects.
+	 *
+	 * @param flushStrategy the flush strategy
+	 */
+	public void setFlushStrategy(FlushStrategy flushStrategy) {
+		this.flushStrategy = flushStrategy;
+	}
+
+	/**
+	 * Returns the number of disconnected entities after which the persistence context is flushed again if the
+	 * {@link FlushStrategy#INTERVAL} strategy is used.
+	 * <p/>
+	 * <p>Default is {@code 100}.</p>
+	 *
+	 * @return the number of entities
+	 */
+	public int getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * Sets the number of disconnected entities after which the persistence context should be flushed again if the
+	 * {@link FlushStrategy#INTERVAL} strategy is used.
+	 *
+	 * @param flushInterval the number of entities
+	 */
+	public void setFlushInterval(int flushInterval) {
+		this.flushInterval = flushInterval;
 	}
 
 	/**
@@ -115,4 +228,197 @@ public class DormancyConfiguration {
 	public void setCreateEmptyCollections(boolean createEmptyCollections) {
 		this.createEmptyCollections = createEmptyCollections;
 	}
+
+	/**
+	 * Returns the maximum number of entities of the same type, which are retrieved with a single query before
+	 * changes are applied.<br/>
+	 * A value less than {@code 2} disables batch retrieval i.e., every entity is retrieved separately.
+	 * <p/>
+	 * <p>Default is {@code 100}.</p>
+	 *
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the maximum number of entities of the same type, which are retrieved with a single query before changes
+	 * are applied.
+	 *
+	 * @param batchSize the batch size or a value less than {@code 2} for disabling batch retrieval
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Returns whether a {@link at.dormancy.util.Snapshot} of every disconnected entity is recorded so that unchanged
+	 * properties are not applied.<br/>
+	 * The state of an applied entity becomes the reference for subsequent changes once the transaction commits.
+	 * <p/>
+	 * Only properties holding immutable values e.g., strings, numbers and dates, are tracked. Associations and
+	 * collections are always traversed because changes of the associated entities cannot be detected otherwise.
+	 * Thus, unchanged parts of an object graph are not skipped as a whole.
+	 * <p/>
+	 * <p>Default is {@code false}.</p>
+	 *
+	 * @return {@code true} if changes are tracked, {@code false} otherwise
+	 */
+	public boolean isTrackChanges() {
+		return trackChanges;
+	}
+
+	/**
+	 * Sets whether a {@link at.dormancy.util.Snapshot} of every disconnected entity should be recorded so that
+	 * unchanged properties are not applied.
+	 *
+	 * @param trackChanges {@code true} if changes should be tracked, {@code false} otherwise
+	 */
+	public void setTrackChanges(boolean trackChanges) {
+		this.trackChanges = trackChanges;
+	}
+
+	/**
+	 * Returns the {@link ExecutorService} used for disconnecting the elements of large collections, maps and arrays
+	 * in parallel.<br/>
+	 * Parallel processing is only possible if the persistence context is not accessed while disconnecting. Thus, it
+	 * is not used if {@link FlushStrategy#INTERVAL flushing periodically}, {@link #isEvictObjects() eviction} or
+	 * {@link #getClearInterval() clearing} is enabled. If an uninitialized object
+	 * is encountered, the whole object graph is disconnected sequentially instead.
+	 * <p/>
+	 * <p>Default is {@code null} i.e., objects are disconnected sequentially.</p>
+	 *
+	 * @return the executor service or {@code null} if parallel processing is disabled
+	 */
+	public ExecutorService getExecutorService() {
+		return executorService;
+	}
+
+	/**
+	 * Sets the {@link ExecutorService} used for disconnecting the elements of large collections, maps and arrays in
+	 * parallel.
+	 *
+	 * @param executorService the executor service or {@code null} for disabling parallel processing
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Returns the minimum number of elements of a collection, map or array for disconnecting them in parallel.
+	 * <p/>
+	 * <p>Default is {@code 1000}.</p>
+	 *
+	 * @return the minimum number of elements
+	 * @see #getExecutorService()
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Sets the minimum number of elements of a collection, map or array for disconnecting them in parallel.
+	 *
+	 * @param parallelThreshold the minimum number of elements
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Returns the number of objects disconnected {@link Dormancy#disconnectLazily(java.util.Iterator) lazily} after
+	 * which the persistence context is cleared.<br/>
+	 * This keeps the memory consumption constant while streaming large query results. However, changes made in the
+	 * persistence context, which are not flushed yet, are discarded. A value less than {@code 1} disables clearing.
+	 * <p/>
+	 * <p>Default is {@code 1000}.</p>
+	 *
+	 * @return the number of objects
+	 */
+	public int getStreamClearInterval() {
+		return streamClearInterval;
+	}
+
+	/**
+	 * Sets the number of objects disconnected lazily after which the persistence context should be cleared.
+	 *
+	 * @param streamClearInterval the number of objects or a value less than {@code 1} for disabling clearing
+	 */
+	public void setStreamClearInterval(int streamClearInterval) {
+		this.streamClearInterval = streamClearInterval;
+	}
+
+	/**
+	 * Returns whether entities are evicted from the persistence context as soon as they are disconnected.<br/>
+	 * This keeps the memory consumption of the persistence context low when disconnecting large object graphs within
+	 * a single transaction. However, changes made to evicted entities are not synchronized with the database anymore.
+	 * <p/>
+	 * <p>Default is {@code false}.</p>
+	 *
+	 * @return {@code true} if entities are evicted, {@code false} otherwise
+	 * @see at.dormancy.util.AbstractDormancyUtils#evict(Object)
+	 */
+	public boolean isEvictObjects() {
+		return evictObjects;
+	}
+
+	/**
+	 * Sets whether entities should be evicted from the persistence context as soon as they are disconnected.
+	 *
+	 * @param evictObjects {@code true} if entities should be evicted, {@code false} otherwise
+	 */
+	public void setEvictObjects(boolean evictObjects) {
+		this.evictObjects = evictObjects;
+	}
+
+	/**
+	 * Returns the number of entities disconnected by a single operation after which the persistence context is
+	 * cleared.<br/>
+	 * In contrast to {@link #isEvictObjects() eviction}, clearing releases all entities at once. Note that changes
+	 * made in the persistence context, which are not flushed yet, are discarded. A value less than {@code 1} disables
+	 * clearing. If eviction is enabled, this value is ignored.
+	 * <p/>
+	 * <p>Default is {@code 0}.</p>
+	 *
+	 * @return the number of entities
+	 * @see at.dormancy.util.AbstractDormancyUtils#clear()
+	 */
+	public int getClearInterval() {
+		return clearInterval;
+	}
+
+	/**
+	 * Sets the number of entities disconnected by a single operation after which the persistence context should be
+	 * cleared.
+	 *
+	 * @param clearInterval the number of entities or a value less than {@code 1} for disabling clearing
+	 */
+	public void setClearInterval(int clearInterval) {
+		this.clearInterval = clearInterval;
+	}
+
+	/**
+	 * Returns whether the metadata, copy plans and object handlers of all entities known to the persistence unit are
+	 * resolved when {@link Dormancy#initialize() initializing} Dormancy instead of on first use.<br/>
+	 * The entities are processed by the configured {@link #getExecutorService() ExecutorService} or by a temporary
+	 * thread pool if none is set.
+	 * <p/>
+	 * <p>Default is {@code false}.</p>
+	 *
+	 * @return {@code true} if the warm-up is enabled, {@code false} otherwise
+	 * @see Dormancy#warmUp()
+	 */
+	public boolean isWarmUp() {
+		return warmUp;
+	}
+
+	/**
+	 * Sets whether the metadata of all entities should be resolved during initialization.
+	 *
+	 * @param warmUp {@code true} if the warm-up should be enabled, {@code false} otherwise
+	 */
+	public void setWarmUp(boolean warmUp) {
+		this.warmUp = warmUp;
+	}
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.access;
+
+import at.dormancy.metadata.ObjectMetadata;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Accesses a property by using a {@link MetadataPropertyAccessor}.
+ * <p/>
+ * This handle is used if a property cannot be resolved to a field or a pair of accessor methods in advance e.g.,
+ * because the getter or setter is missing or not visible. Every access creates a new
+ * {@link MetadataPropertyAccessor}, which takes care of reporting the problem accordingly.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class AccessorPropertyHandle implements PropertyHandle {
+	protected final String name;
+	protected final ObjectMetadata metadata;
+
+	public AccessorPropertyHandle(@Nonnull String name, @Nonnull ObjectMetadata metadata) {
+		this.name = name;
+		this.metadata = metadata;
+	}
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Nullable
+	@Override
+	public Object getValue(@Nonnull Object target) {
+		return new MetadataPropertyAccessor(target, metadata).getPropertyValue(name);
+	}
+
+	@Override
+	public void setValue(@Nonnull Object target, @Nullable Object value) {
+		new MetadataPropertyAccessor(target, metadata).setPropertyValue(name, value);
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.access;
+
+import at.dormancy.metadata.ObjectMetadata;
+import com.google.common.primitives.Primitives;
+import net.sf.cglib.core.CodeGenerationException;
+import net.sf.cglib.reflect.FastClass;
+import org.apache.log4j.Logger;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Holds resolved {@link PropertyHandle}s for all properties described by an {@link ObjectMetadata}.
+ * <p/>
+ * The handles are resolved once for a certain type and stored in the same order as the properties returned by
+ * {@link ObjectMetadata#getProperties()}. Thus, traversing the properties of an object does neither require any
+ * lookups by name nor any introspection.<br/>
+ * Public getter and setter methods of public types are invoked via a generated {@link FastClass}, whereas other
+ * methods as well as fields are accessed via Java reflection.
+ * If a property cannot be resolved in advance, an {@link AccessorPropertyHandle} is used for it.
+ * <p/>
+ * Furthermore, properties declared as primitive, wrapper, {@link String} or enum type are classified as
+ * <i>leaves</i>. Their values are immutable and never refer to other objects, thus they can be copied as they are.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class CopyPlan {
+	private static final Logger logger = Logger.getLogger(CopyPlan.class);
+	protected final Class<?> type;
+	protected final ObjectMetadata metadata;
+	protected final PropertyHandle[] handles;
+	protected final boolean[] leaves;
+	protected FastClass fastClass;
+	protected boolean fastClassUnavailable;
+
+	public CopyPlan(@Nonnull Class<?> type, @Nonnull ObjectMetadata metadata) {
+		this.type = type;
+		this.metadata = metadata;
+		this.handles = new PropertyHandle[metadata.getProperties().size()];
+		this.leaves = new boolean[handles.length];
+		int i = 0;
+		for (String propertyName : metadata.getProperties()) {
+			AccessType accessType = metadata.getAccessType(propertyName);
+			handles[i] = createHandle(propertyName, accessType);
+			Class<?> propertyType = getPropertyType(propertyName, accessType);
+			leaves[i++] = propertyType != null && isLeafType(propertyType);
+		}
+	}
+
+	/**
+	 * Returns the declared type of the named property.
+	 *
+	 * @param propertyName the name of the property
+	 * @param accessType   how the property has to be accessed
+	 * @return the type of the property or {@code null} if it cannot be determined
+	 */
+	@Nullable
+	protected Class<?> getPropertyType(@Nonnull String propertyName, @Nonnull AccessType accessType) {
+		if (accessType == AccessType.FIELD) {
+			Field field = ReflectionUtils.findField(type, propertyName);
+			return field != null ? field.getType() : null;
+		}
+		PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, propertyName);
+		return descriptor != null ? descriptor.getPropertyType() : null;
+	}
+
+	/**
+	 * Checks whether properties of the given type hold immutable values, which do not refer to other objects.
+	 *
+	 * @param propertyType the declared type of a property
+	 * @return {@code true} if the values can be copied as they are, {@code false} otherwise
+	 */
+	public static boolean isLeafType(@Nonnull Class<?> propertyType) {
+		return propertyType.isPrimitive() || Primitives.isWrapperType(propertyType)
+				|| propertyType == String.class || propertyType.isEnum();
+	}
+
+	/**
+	 * Creates a {@link PropertyHandle} for accessing the named property.
+	 *
+	 * @param propertyName the name of the property
+	 * @param accessType   how the property has to be accessed
+	 * @return the handle to use
+	 */
+	@Nonnull
+	protected PropertyHandle createHandle(@Nonnull String propertyName, @Nonnull AccessType accessType) {
+		if (accessType == AccessType.FIELD) {
+			Field field = ReflectionUtils.findField(type, propertyName);
+			if (field != null && !Modifier.isStatic(field.getModifiers())) {
+				return new FieldPropertyHandle(field);
+			}
+		} else {
+			PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, propertyName);
+			if (descriptor != null && descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+				Method readMethod = descriptor.getReadMethod();
+				Method writeMethod = descriptor.getWriteMethod();
+				FastClass generated = isPublic(readMethod) && isPublic(writeMethod) ? getFastClass() : null;
+				if (generated != null && generated.getIndex(readMethod.getName(), readMethod.getParameterTypes()) >= 0
+						&& generated.getIndex(writeMethod.getName(), writeMethod.getParameterTypes()) >= 0) {
+					return new FastMethodPropertyHandle(propertyName, generated, readMethod, writeMethod);
+				}
+				return new MethodPropertyHandle(propertyName, readMethod, writeMethod);
+			}
+		}
+		return new AccessorPropertyHandle(propertyName, metadata);
+	}
+
+	/**
+	 * Returns the {@link FastClass} for invoking methods of the type.<br/>
+	 * If the type is not public or the class cannot be generated, {@code null} is returned.
+	 *
+	 * @return the fast class or {@code null} if it is not available
+	 */
+	@Nullable
+	protected FastClass getFastClass() {
+		if (fastClass == null && !fastClassUnavailable) {
+			fastClassUnavailable = !Modifier.isPublic(type.getModifiers());
+			if (!fastClassUnavailable) {
+				try {
+					fastClass = FastClass.create(type);
+				} catch (CodeGenerationException e) {
+					fastClassUnavailable = true;
+					if (logger.isDebugEnabled()) {
+						logger.debug(String.format("Cannot generate FastClass for %s - using reflection instead: %s",
+								type.getName(), e.getMessage()));
+					}
+				}
+			}
+		}
+		return fastClass;
+	}
+
+	/**
+	 * Checks whether the given method can be invoked by a generated class.
+	 *
+	 * @param method the method to check
+	 * @return {@code true} if the method and its declaring class are public, {@code false} otherwise
+	 */
+	protected static boolean isPublic(@Nonnull Method method) {
+		return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+	}
+
+	/**
+	 * Returns the number of properties.
+	 *
+	 * @return the number of properties
+	 */
+	public int size() {
+		return handles.length;
+	}
+
+	/**
+	 * Returns the handle of the property at the given position.
+	 *
+	 * @param index the position of the property
+	 * @return the property handle
+	 */
+	@Nonnull
+	public PropertyHandle getHandle(int index) {
+		return handles[index];
+	}
+
+	/**
+	 * Checks whether the property at the given position is a leaf i.e., its values can be copied as they are.
+	 *
+	 * @param index the position of the property
+	 * @return {@code true} if the property is a leaf, {@code false} otherwise
+	 */
+	public boolean isLeaf(int index) {
+		return leaves[index];
+	}
+
+	/**
+	 * Returns the handle of the named property.
+	 *
+	 * @param propertyName the name of the property
+	 * @return the property handle
+	 * @throws IllegalArgumentException if there is no such property
+	 */
+	@Nonnull
+	public PropertyHandle getHandle(@Nullable String propertyName) {
+		PropertyHandle handle = findHandle(propertyName);
+		if (handle == null) {
+			throw new IllegalArgumentException(String.format("'%s' is not a valid property of %s", propertyName, type));
+		}
+		return handle;
+	}
+
+	/**
+	 * Returns the handle of the named property if it is part of this plan.
+	 *
+	 * @param propertyName the name of the property
+	 * @return the property handle or {@code null} if there is no such property
+	 */
+	@Nullable
+	public PropertyHandle findHandle(@Nullable String propertyName) {
+		for (PropertyHandle handle : handles) {
+			if (handle.getName().equals(propertyName)) {
+				return handle;
+			}
+		}
+		return null;
+	}
+
+	@Nonnull
+	public Class<?> getType() {
+		return type;
+	}
+
+	@Nonnull
+	public ObjectMetadata getMetadata() {
+		return metadata;
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.access;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+import org.apache.commons.lang.ArrayUtils;
+import org.springframework.util.ClassUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Accesses a property by invoking its getter and setter methods via a generated {@link FastClass}.
+ * <p/>
+ * The generated class invokes the accessor methods directly instead of using Java reflection. Thus, it can only be
+ * used for public methods declared in public types.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ * @see AccessType#PROPERTY
+ */
+public class FastMethodPropertyHandle extends MethodPropertyHandle {
+	protected final FastMethod fastReadMethod;
+	protected final FastMethod fastWriteMethod;
+	protected final Class<?> parameterType;
+
+	public FastMethodPropertyHandle(@Nonnull String name, @Nonnull FastClass fastClass,
+									@Nonnull Method readMethod, @Nonnull Method writeMethod) {
+		super(name, readMethod, writeMethod);
+		this.fastReadMethod = fastClass.getMethod(readMethod);
+		this.fastWriteMethod = fastClass.getMethod(writeMethod);
+		this.parameterType = writeMethod.getParameterTypes()[0];
+	}
+
+	@Nullable
+	@Override
+	protected Object invokeReadMethod(@Nonnull Object target) throws InvocationTargetException {
+		return fastReadMethod.invoke(target, ArrayUtils.EMPTY_OBJECT_ARRAY);
+	}
+
+	@Override
+	protected void invokeWriteMethod(@Nonnull Object target, @Nullable Object value)
+			throws InvocationTargetException, IllegalAccessException {
+		if (ClassUtils.isAssignableValue(parameterType, value)) {
+			fastWriteMethod.invoke(target, new Object[]{value});
+		} else {
+			// Let reflection report the type mismatch instead of failing within the generated class
+			super.invokeWriteMethod(target, value);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.access;
+
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.beans.PropertyChangeEvent;
+import java.lang.reflect.Field;
+
+/**
+ * Accesses a property directly via its {@link Field} without invoking any getter or setter methods.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ * @see AccessType#FIELD
+ */
+public class FieldPropertyHandle implements PropertyHandle {
+	protected final Field field;
+
+	public FieldPropertyHandle(@Nonnull Field field) {
+		ReflectionUtils.makeAccessible(field);
+		this.field = field;
+	}
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return field.getName();
+	}
+
+	@Nullable
+	@Override
+	public Object getValue(@Nonnull Object target) {
+		try {
+			return field.get(target);
+		} catch (IllegalAccessException e) {
+			ReflectionUtils.handleReflectionException(e);
+			return null;
+		}
+	}
+
+	@Override
+	public void setValue(@Nonnull Object target, @Nullable Object value) {
+		try {
+			field.set(target, value);
+		} catch (IllegalAccessException e) {
+			ReflectionUtils.handleReflectionException(e);
+		} catch (IllegalArgumentException e) {
+			PropertyChangeEvent event = new PropertyChangeEvent(target, getName(), null, value);
+			throw new TypeMismatchException(event, field.getType(), e);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.access;
+
+import org.springframework.beans.InvalidPropertyException;
+import org.springframework.beans.MethodInvocationException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.beans.PropertyChangeEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Accesses a property by invoking its getter and setter methods.
+ * <p/>
+ * Exceptions thrown by the accessor methods are translated the same way as a
+ * {@link org.springframework.beans.BeanWrapper} does.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ * @see AccessType#PROPERTY
+ */
+public class MethodPropertyHandle implements PropertyHandle {
+	protected final String name;
+	protected final Method readMethod;
+	protected final Method writeMethod;
+
+	public MethodPropertyHandle(@Nonnull String name, @Nonnull Method readMethod, @Nonnull Method writeMethod) {
+		ReflectionUtils.makeAccessible(readMethod);
+		ReflectionUtils.makeAccessible(writeMethod);
+		this.name = name;
+		this.readMethod = readMethod;
+		this.writeMethod = writeMethod;
+	}
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Nullable
+	@Override
+	public Object getValue(@Nonnull Object target) {
+		try {
+			return invokeReadMethod(target);
+		} catch (InvocationTargetException e) {
+			throw new InvalidPropertyException(target.getClass(), name,
+					"Getter for property '" + name + "' threw exception", e);
+		} catch (IllegalAccessException e) {
+			ReflectionUtils.handleReflectionException(e);
+			return null;
+		}
+	}
+
+	@Override
+	public void setValue(@Nonnull Object target, @Nullable Object value) {
+		try {
+			invokeWriteMethod(target, value);
+		} catch (InvocationTargetException e) {
+			PropertyChangeEvent event = new PropertyChangeEvent(target, name, null, value);
+			throw new MethodInvocationException(event, e.getTargetException());
+		} catch (IllegalArgumentException e) {
+			PropertyChangeEvent event = new PropertyChangeEvent(target, name, null, value);
+			throw new TypeMismatchException(event, writeMethod.getParameterTypes()[0], e);
+		} catch (IllegalAccessException e) {
+			ReflectionUtils.handleReflectionException(e);
+		}
+	}
+
+	/**
+	 * Invokes the getter method on the given object.
+	 *
+	 * @param target the object to read from
+	 * @return the value returned by the getter
+	 * @throws InvocationTargetException if the getter throws an exception
+	 * @throws IllegalAccessException    if the getter is not accessible
+	 */
+	@Nullable
+	protected Object invokeReadMethod(@Nonnull Object target) throws InvocationTargetException,
+			IllegalAccessException {
+		return readMethod.invoke(target);
+	}
+
+	/**
+	 * Invokes the setter method on the given object.
+	 *
+	 * @param target the object to modify
+	 * @param value  the value to pass to the setter
+	 * @throws InvocationTargetException if the setter throws an exception
+	 * @throws IllegalAccessException    if the setter is not accessible
+	 */
+	protected void invokeWriteMethod(@Nonnull Object target, @Nullable Object value)
+			throws InvocationTargetException, IllegalAccessException {
+		writeMethod.invoke(target, value);
+	}
+}
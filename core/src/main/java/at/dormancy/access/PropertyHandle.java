@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.access;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Provides read and write access to a single property of objects of a certain type.
+ * <p/>
+ * In contrast to a {@link org.springframework.beans.PropertyAccessor}, a handle is bound to one property and resolved
+ * once for a type. Thus, it can be reused for any instance of that type without further lookups.
+ * <p/>
+ * Implementors must be threadsafe (preferably immutable).
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ * @see CopyPlan
+ */
+public interface PropertyHandle {
+	/**
+	 * Returns the name of the property.
+	 *
+	 * @return the property name
+	 */
+	@Nonnull
+	String getName();
+
+	/**
+	 * Returns the current value of the property of the given object.
+	 *
+	 * @param target the object to read from
+	 * @return the value of the property
+	 */
+	@Nullable
+	Object getValue(@Nonnull Object target);
+
+	/**
+	 * Sets the property of the given object to the given value.
+	 *
+	 * @param target the object to modify
+	 * @param value  the new value
+	 */
+	void setValue(@Nonnull Object target, @Nullable Object value);
+}
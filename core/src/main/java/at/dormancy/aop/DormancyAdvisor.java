@@ -16,8 +16,9 @@
 package at.dormancy.aop;
 
 import at.dormancy.Dormancy;
+import at.dormancy.DormancyConfiguration.FlushStrategy;
+import at.dormancy.access.CopyPlan;
 import at.dormancy.handler.ObjectHandler;
-import at.dormancy.util.DormancyContext;
 import org.aopalliance.aop.Advice;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -38,9 +39,13 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
+import java.lang.reflect.*;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.base.Throwables.propagateIfPossible;
@@ -77,6 +82,41 @@ public class DormancyAdvisor extends AbstractPointcutAdvisor implements MethodIn
 	protected Mode mode = Mode.RESULT;
 	protected Pointcut pointcut;
 	protected Integer order;
+	protected final ConcurrentMap<Method, EndpointPlan> plans = new ConcurrentHashMap<Method, EndpointPlan>();
+
+	/**
+	 * Describes how the parameters and the result of a method have to be processed.<br/>
+	 * The plan only depends on the declaration of the method. Thus, it is computed once and cached for subsequent
+	 * invocations.
+	 */
+	protected static class EndpointPlan {
+		/**
+		 * The indexes of the parameters that may contain entities.
+		 */
+		protected final int[] parameters;
+		/**
+		 * Whether the result may contain entities.
+		 */
+		protected final boolean result;
+		/**
+		 * Whether the caller expects an {@link Iterator}, which may be created from the result.
+		 */
+		protected final boolean lazy;
+
+		public EndpointPlan(@Nonnull Method method) {
+			Type[] parameterTypes = method.getGenericParameterTypes();
+			int[] indexes = new int[parameterTypes.length];
+			int length = 0;
+			for (int i = 0; i < parameterTypes.length; i++) {
+				if (canContainEntities(parameterTypes[i])) {
+					indexes[length++] = i;
+				}
+			}
+			parameters = Arrays.copyOf(indexes, length);
+			result = canContainEntities(method.getGenericReturnType());
+			lazy = result && Iterator.class.isAssignableFrom(method.getReturnType());
+		}
+	}
 
 	@Inject
 	public DormancyAdvisor(@Nonnull Dormancy dormancy) {
@@ -87,34 +127,122 @@ public class DormancyAdvisor extends AbstractPointcutAdvisor implements MethodIn
 	@SuppressWarnings("unchecked")
 	private Object process(@Nonnull Object[] args, @Nonnull Method method, @Nonnull Object target,
 						   @Nonnull Callable<?> callable) throws Throwable {
+		EndpointPlan plan = getPlan(method);
+
 		// Process method parameters (if enabled)
-		ObjectHandler<Object> handler = dormancy.asObjectHandler();
-		if (args.length > 0 && (mode == Mode.PARAMETERS || mode == Mode.BOTH)) {
+		if (plan.parameters.length > 0 && (mode == Mode.PARAMETERS || mode == Mode.BOTH)) {
 			if (logger.isDebugEnabled()) {
 				logger.debug(String.format("Using %s for method invocation %s.%s(%s)",
-						handler.getClass().getSimpleName(), target.getClass().getName(),
+						dormancy.getClass().getSimpleName(), target.getClass().getName(),
 						method.getName(), Arrays.toString(args)));
 			}
-			for (int i = 0; i < args.length; i++) {
-				args[i] = dormancy.asObjectHandler().apply(args[i], new DormancyContext());
+			// All parameters share a single context so that common entities are retrieved and merged only once
+			if (plan.parameters.length == args.length) {
+				dormancy.applyAll(args);
+			} else {
+				Object[] trObjs = new Object[plan.parameters.length];
+				for (int i = 0; i < trObjs.length; i++) {
+					trObjs[i] = args[plan.parameters[i]];
+				}
+				dormancy.applyAll(trObjs);
+				for (int i = 0; i < trObjs.length; i++) {
+					args[plan.parameters[i]] = trObjs[i];
+				}
 			}
 		}
 
 		// Invoke the desired method
 		Object result = callable.call();
+		if (dormancy.getConfig().getFlushStrategy() == FlushStrategy.INVOCATION) {
+			dormancy.flush();
+		}
 
 		// Process the result (if enabled)
-		if (method.getReturnType() != void.class && result != null && (mode == Mode.RESULT || mode == Mode.BOTH)) {
+		if (plan.result && result != null && (mode == Mode.RESULT || mode == Mode.BOTH)) {
 			if (logger.isDebugEnabled()) {
 				logger.debug(String.format("Using %s for method result %s.%s(%s) => %s",
-						handler.getClass().getSimpleName(), target.getClass().getName(),
+						dormancy.getClass().getSimpleName(), target.getClass().getName(),
 						method.getName(), Arrays.toString(args), result));
 			}
-			result = handler.disconnect(result, new DormancyContext());
+			// Streams are disconnected lazily if the caller expects an Iterator or the result is an Iterator anyway
+			Iterator<?> iterator = plan.lazy ? dormancy.getUtils().iterate(result)
+					: result instanceof Iterator ? (Iterator<?>) result : null;
+			result = iterator != null ? dormancy.disconnectLazily(iterator) : dormancy.disconnect(result);
 		}
 		return result;
 	}
 
+	/**
+	 * Returns the {@link EndpointPlan} of the given method.<br/>
+	 * The plan is created on the first invocation and reused afterwards.
+	 *
+	 * @param method the intercepted method
+	 * @return the plan to use
+	 */
+	@Nonnull
+	protected EndpointPlan getPlan(@Nonnull Method method) {
+		EndpointPlan plan = plans.get(method);
+		if (plan == null) {
+			plan = new EndpointPlan(method);
+			EndpointPlan existing = plans.putIfAbsent(method, plan);
+			plan = existing != null ? existing : plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Checks if an object of the given declared type may be or contain an entity.<br/>
+	 * Only types that are known to hold simple values only (e.g., {@link String}, primitives and their wrappers,
+	 * enums or collections and arrays thereof) are excluded. Everything else is processed to be on the safe side.
+	 *
+	 * @param type the declared type
+	 * @return {@code true} if the object may have to be processed, {@code false} otherwise
+	 */
+	public static boolean canContainEntities(@Nonnull Type type) {
+		if (type instanceof Class) {
+			Class<?> clazz = (Class<?>) type;
+			if (clazz.isArray()) {
+				return canContainEntities(clazz.getComponentType());
+			}
+			return clazz != void.class && clazz != Class.class && !Enum.class.isAssignableFrom(clazz)
+					&& !CopyPlan.isLeafType(clazz);
+		} else if (type instanceof GenericArrayType) {
+			return canContainEntities(((GenericArrayType) type).getGenericComponentType());
+		} else if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			Type rawType = parameterizedType.getRawType();
+			if (!canContainEntities(rawType)) {
+				return false;
+			}
+			if (rawType instanceof Class && (Iterable.class.isAssignableFrom((Class<?>) rawType)
+					|| Iterator.class.isAssignableFrom((Class<?>) rawType)
+					|| Map.class.isAssignableFrom((Class<?>) rawType))) {
+				for (Type argument : parameterizedType.getActualTypeArguments()) {
+					if (canContainEntities(argument)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			return true;
+		} else if (type instanceof WildcardType) {
+			return canContainEntities(((WildcardType) type).getUpperBounds());
+		} else if (type instanceof TypeVariable) {
+			return canContainEntities(((TypeVariable<?>) type).getBounds());
+		}
+		return true;
+	}
+
+	private static boolean canContainEntities(@Nonnull Type[] bounds) {
+		// The actual type has to be a subtype of every bound
+		for (Type bound : bounds) {
+			if (!canContainEntities(bound)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Nullable
 	public Object around(@Nonnull final ProceedingJoinPoint joinPoint) throws Throwable {
 		Method method = MethodSignature.class.cast(joinPoint.getSignature()).getMethod();
@@ -16,22 +16,22 @@
 package at.dormancy.handler;
 
 import at.dormancy.Dormancy;
+import at.dormancy.access.CopyPlan;
+import at.dormancy.handler.callback.CompletionCallback;
 import at.dormancy.util.DormancyContext;
+import at.dormancy.util.PendantIndex;
 import com.google.common.base.Predicate;
-import org.apache.commons.lang.ArrayUtils;
+import org.springframework.util.ObjectUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
-import static com.google.common.collect.Lists.newArrayList;
-import static org.springframework.util.ObjectUtils.toObjectArray;
-
 /**
  * Processes all types of arrays by traversing them and invoking the desired operation of the appropriate
  * {@link ObjectHandler} for all elements.
@@ -66,19 +66,30 @@ public class ArrayHandler<T> implements ObjectHandler<T>, DynamicObjectHandler<T
 			return (R) adjacencyMap.get(dbObj);
 		}
 
-		R container = createObject(dbObj);
-		adjacencyMap.put(dbObj, container);
+		final R container = createObject(dbObj);
+		Object previous = ctx.putIfAbsent(dbObj, container);
+		if (previous != null) {
+			return (R) previous;
+		}
 
-		List list = dormancy.asObjectHandler().disconnect(arrayToList(dbObj), ctx);
-		for (int i = 0; i < list.size(); i++) {
-			Array.set(container, i, list.get(i));
+		// Immutable elements do not have to be processed at all
+		if (isLeafArray(dbObj)) {
+			System.arraycopy(dbObj, 0, container, 0, Array.getLength(dbObj));
+			return container;
 		}
+
+		dormancy.disconnectAll(Arrays.asList((Object[]) dbObj), ctx, new CompletionCallback<List<Object>>() {
+			@Override
+			public void complete(@Nonnull List<Object> result) {
+				result.toArray((Object[]) container);
+			}
+		});
 		return container;
 	}
 
 	@Override
 	@SuppressWarnings("unchecked")
-	public <O extends T, R extends O> R apply(@Nullable O trObj, @Nonnull R dbObj, @Nonnull DormancyContext ctx) {
+	public <O extends T, R extends O> R apply(@Nullable O trObj, @Nullable R dbObj, @Nonnull DormancyContext ctx) {
 		Map<Object, Object> adjacencyMap = ctx.getAdjacencyMap();
 		if (trObj == null) {
 			return dbObj;
@@ -86,31 +97,57 @@ public class ArrayHandler<T> implements ObjectHandler<T>, DynamicObjectHandler<T
 			return (R) adjacencyMap.get(trObj);
 		}
 
-		R container = createObject(dbObj);
-		adjacencyMap.put(trObj, dbObj);
+		// The merged array has the length of the transient array but the component type of the persistent array
+		Class<?> componentType = (dbObj != null ? dbObj : trObj).getClass().getComponentType();
+		int length = Array.getLength(trObj);
+		if (isLeafArray(trObj) && componentType == trObj.getClass().getComponentType()) {
+			// Keep the persistent array if it is not modified at all
+			if (ObjectUtils.nullSafeEquals(trObj, dbObj)) {
+				adjacencyMap.put(trObj, dbObj);
+				return dbObj;
+			}
+			R container = (R) Array.newInstance(componentType, length);
+			System.arraycopy(trObj, 0, container, 0, length);
+			adjacencyMap.put(trObj, container);
+			return container;
+		}
+		final R container = (R) Array.newInstance(componentType, length);
+		adjacencyMap.put(trObj, container);
 
-		ArrayList<Object> trList = newArrayList(arrayToList(trObj));
-		ArrayList<Object> dbList = newArrayList(arrayToList(dbObj));
-		List list = dormancy.asObjectHandler().apply(trList, dbList, ctx);
-		for (int i = 0; i < list.size(); i++) {
-			Array.set(container, i, list.get(i));
+		// Look up the persistent pendants of the elements
+		List<Object> trList = Arrays.asList((Object[]) trObj);
+		List<Object> dbList = new ArrayList<Object>(length);
+		PendantIndex<?> index = dbObj == null || Array.getLength(dbObj) == 0
+				? null : dormancy.getUtils().createPendantIndex(Arrays.asList((Object[]) dbObj));
+		for (Object trElement : trList) {
+			dbList.add(trElement == null || index == null ? null : index.remove(trElement));
 		}
+
+		dormancy.applyAll(trList, dbList, ctx, new CompletionCallback<List<Object>>() {
+			@Override
+			public void complete(@Nonnull List<Object> result) {
+				result.toArray((Object[]) container);
+			}
+		});
 		return container;
 	}
 
 	/**
-	 * Creates a new {@link List} and copies all elements from the given array into it.
+	 * Checks whether the elements of the given array are immutable values, which can be copied as they are.<br/>
+	 * This is the case for arrays of primitives as well as for arrays of leaf types, which are processed by the
+	 * {@link BasicTypeHandler}.
 	 *
-	 * @param array the array
-	 * @param <A>   the type of the array
-	 * @return the newly created list
+	 * @param array the array to check
+	 * @return {@code true} if the elements can be copied, {@code false} otherwise
+	 * @see CopyPlan#isLeafType(Class)
 	 */
-	@Nonnull
-	protected <A extends T> List<?> arrayToList(@Nonnull A array) {
-		// Just for efficiency
-		ArrayList<Object> list = new ArrayList<Object>(ArrayUtils.getLength(array));
-		Collections.addAll(list, toObjectArray(array));
-		return list;
+	protected boolean isLeafArray(@Nonnull Object array) {
+		Class<?> componentType = array.getClass().getComponentType();
+		if (componentType.isPrimitive()) {
+			return true;
+		}
+		ObjectHandler<?> handler = dormancy.getRegistry().getObjectHandler(componentType);
+		return CopyPlan.isLeafType(componentType) && handler != null && handler.getClass() == BasicTypeHandler.class;
 	}
 
 	@Nonnull
@@ -16,18 +16,28 @@
 package at.dormancy.handler;
 
 import at.dormancy.Dormancy;
+import at.dormancy.handler.callback.CompletionCallback;
 import at.dormancy.util.DormancyContext;
+import at.dormancy.util.PendantIndex;
+import com.google.common.base.Equivalence;
 import com.google.common.base.Objects;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import org.springframework.core.CollectionFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 
 import static com.google.common.collect.Iterables.size;
@@ -39,6 +49,7 @@ import static com.google.common.collect.Iterables.size;
  * @author Gregor Schauer
  */
 public class CollectionHandler<C extends Collection> implements StaticObjectHandler<C> {
+	static final Equivalence<Object> IDENTITY = Equivalence.identity();
 	final Set<Class<?>> supportedTypes = Sets.<Class<?>>newHashSet(List.class, Set.class);
 	Dormancy<?, ?, ?> dormancy;
 	Dormancy.DormancyObjectHandler handler;
@@ -66,19 +77,27 @@ public class CollectionHandler<C extends Collection> implements StaticObjectHand
 			return (R) adjacencyMap.get(dbObj);
 		}
 
-		O trObj = createObject(dbObj);
-		adjacencyMap.put(dbObj, trObj);
-
-		for (Object dbElement : dbObj) {
-			trObj.add(handler.disconnect(dbElement, ctx));
+		final O trObj = createObject(dbObj);
+		Object previous = ctx.putIfAbsent(dbObj, trObj);
+		if (previous != null) {
+			return (R) previous;
 		}
+
+		// The elements must not be added before they are processed completely because they might be hashed
+		dormancy.disconnectAll(dbObj, ctx, new CompletionCallback<List<Object>>() {
+			@Override
+			public void complete(@Nonnull List<Object> result) {
+				trObj.addAll(result);
+			}
+		});
 		return trObj;
 	}
 
 	@Nullable
 	@Override
 	@SuppressWarnings("unchecked")
-	public <O extends C, R extends O> R apply(@Nullable O trObj, @Nonnull R dbObj, @Nonnull DormancyContext ctx) {
+	public <O extends C, R extends O> R apply(@Nullable final O trObj, @Nonnull R dbObj,
+											  @Nonnull DormancyContext ctx) {
 		Map<Object, Object> adjacencyMap = ctx.getAdjacencyMap();
 		if (trObj == null) {
 			return null;
@@ -95,30 +114,215 @@ public class CollectionHandler<C extends Collection> implements StaticObjectHand
 			return dbObj;
 		}
 
-		dbObj = (R) Objects.firstNonNull(dbObj, Lists.newArrayList());
-		O container = createObject(trObj);
-		adjacencyMap.put(trObj, dbObj);
+		final R target = (R) Objects.firstNonNull(dbObj, Lists.newArrayList());
+		adjacencyMap.put(trObj, target);
+
+		// Look up the persistent pendants before modifying any of them
+		List<Object> trElements = new ArrayList<Object>(trObj);
+		List<Object> dbElements = new ArrayList<Object>(trElements.size());
+		PendantIndex<?> index = target.isEmpty() ? null : dormancy.getUtils().createPendantIndex(target);
+		for (Object trElement : trElements) {
+			dbElements.add(trElement == null || index == null ? null : index.remove(trElement));
+		}
+
+		// The elements must not be added before they are processed completely because they might be hashed
+		final List<Object> pendants = dbElements;
+		dormancy.applyAll(trElements, dbElements, ctx, new CompletionCallback<List<Object>>() {
+			@Override
+			public void complete(@Nonnull List<Object> result) {
+				List<Object> elements = new ArrayList<Object>(result.size());
+				for (int i = 0; i < result.size(); i++) {
+					// Keep persistent elements, which are equal to the merged ones e.g., immutable values
+					Object element = result.get(i);
+					Object pendant = pendants.get(i);
+					elements.add(pendant != null && pendant != element && pendant.equals(element) ? pendant : element);
+				}
+
+				if (!merge((Collection<Object>) target, elements)) {
+					O container = createObject(trObj);
+					container.addAll(result);
+					target.clear();
+					target.addAll(container);
+				}
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * Modifies the persistent collection so that it contains exactly the given elements.<br/>
+	 * Only the differences are applied i.e., elements, which are not contained anymore, are removed and new elements
+	 * are added. Thus, persistent collections, which are not changed, are not marked as dirty. Elements are compared
+	 * by identity.
+	 * <p/>
+	 * If the collection cannot be modified in place, nothing is done and {@code false} is returned. This is the case
+	 * if an element of a set cannot be found anymore e.g., because applying the changes modified its hash code.
+	 *
+	 * @param target   the persistent collection
+	 * @param elements the elements the collection should contain
+	 * @return {@code true} if the collection was merged, {@code false} if it has to be rebuilt
+	 */
+	protected boolean merge(@Nonnull Collection<Object> target, @Nonnull List<Object> elements) {
+		if (target instanceof List) {
+			return merge((List<Object>) target, elements);
+		} else if (!isIntact(target)) {
+			return false;
+		}
+
+		Multiset<Equivalence.Wrapper<Object>> remaining = identityMultiset(elements);
+		for (Iterator<Object> iterator = target.iterator(); iterator.hasNext(); ) {
+			if (!remaining.remove(IDENTITY.wrap(iterator.next()))) {
+				iterator.remove();
+			}
+		}
+		for (Object element : elements) {
+			if (remaining.remove(IDENTITY.wrap(element))) {
+				target.add(element);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Modifies the persistent list so that it contains exactly the given elements in the same order.<br/>
+	 * Retained elements are kept in place as far as possible: the longest subsequence of retained elements, which is
+	 * in the same order in both lists, is left untouched whereas the other retained elements are moved. Thus, the
+	 * number of insertions, removals and moves is minimal.
+	 *
+	 * @param target   the persistent list
+	 * @param elements the elements the list should contain
+	 * @return {@code true} if the list was merged
+	 * @see #merge(Collection, List)
+	 */
+	protected boolean merge(@Nonnull List<Object> target, @Nonnull List<Object> elements) {
+		// Determine which elements are new and remember the positions of the retained ones
+		Multiset<Equivalence.Wrapper<Object>> removed = identityMultiset(target);
+		boolean[] inserted = new boolean[elements.size()];
+		Map<Equivalence.Wrapper<Object>, Queue<Integer>> positions = Maps.newHashMap();
+		for (int i = 0; i < elements.size(); i++) {
+			Equivalence.Wrapper<Object> element = IDENTITY.wrap(elements.get(i));
+			inserted[i] = !removed.remove(element);
+			if (!inserted[i]) {
+				Queue<Integer> queue = positions.get(element);
+				if (queue == null) {
+					queue = new ArrayDeque<Integer>();
+					positions.put(element, queue);
+				}
+				queue.add(i);
+			}
+		}
+
+		// Map the retained persistent elements to their new positions (duplicates are matched in order)
+		boolean[] deleted = new boolean[target.size()];
+		int[] sequence = new int[target.size()];
+		int[] indices = new int[target.size()];
+		int n = 0;
+		int i = 0;
+		for (Object element : target) {
+			Queue<Integer> queue = positions.get(IDENTITY.wrap(element));
+			if (queue == null || queue.isEmpty()) {
+				deleted[i] = true;
+			} else {
+				sequence[n] = queue.remove();
+				indices[n++] = i;
+			}
+			i++;
+		}
+
+		// Retained elements, which are not part of the longest increasing subsequence, have to be moved
+		boolean[] kept = longestIncreasingSubsequence(sequence, n);
+		for (int j = 0; j < n; j++) {
+			if (!kept[j]) {
+				deleted[indices[j]] = true;
+				inserted[sequence[j]] = true;
+			}
+		}
 
-		if (dbObj.isEmpty()) {
-			for (Object trElement : trObj) {
-				container.add(dormancy.asObjectHandler().apply(trElement, ctx));
+		i = 0;
+		for (Iterator<Object> iterator = target.iterator(); iterator.hasNext(); i++) {
+			iterator.next();
+			if (deleted[i]) {
+				iterator.remove();
 			}
-		} else {
-			O dbCopy = createObject(trObj);
-			dbCopy.addAll(dbObj);
-			for (Object trElement : trObj) {
-				Object dbElement = dormancy.getUtils().findPendant(trElement, dbCopy);
-				if (dbElement == null) {
-					container.add(handler.apply(trElement, ctx));
+		}
+		for (int j = 0; j < inserted.length; j++) {
+			if (inserted[j]) {
+				// Appending is cheaper than inserting for some persistent collections e.g., bags
+				if (j == target.size()) {
+					target.add(elements.get(j));
 				} else {
-					container.add(handler.apply(trElement, dbElement, ctx));
+					target.add(j, elements.get(j));
 				}
 			}
 		}
+		return true;
+	}
 
-		dbObj.clear();
-		dbObj.addAll(container);
-		return dbObj;
+	/**
+	 * Determines a longest strictly increasing subsequence of the given distinct values.
+	 *
+	 * @param values the values
+	 * @param length the number of values to consider
+	 * @return flags indicating the values which are part of the subsequence
+	 */
+	@Nonnull
+	static boolean[] longestIncreasingSubsequence(@Nonnull int[] values, int length) {
+		// tails[k] is the index of the smallest value ending an increasing subsequence of length k + 1
+		int[] tails = new int[length];
+		int[] predecessors = new int[length];
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (values[tails[mid]] < values[i]) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			predecessors[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			size = Math.max(size, low + 1);
+		}
+
+		boolean[] result = new boolean[length];
+		for (int i = size > 0 ? tails[size - 1] : -1; i >= 0; i = predecessors[i]) {
+			result[i] = true;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether every element of the given collection can be found by the collection itself.<br/>
+	 * This is not the case for hashed collections if the hash code of an element changed after it has been added.
+	 *
+	 * @param elements the elements
+	 * @return {@code true} if the collection can be modified in place, {@code false} otherwise
+	 */
+	static boolean isIntact(@Nonnull Collection<?> elements) {
+		for (Object element : elements) {
+			if (!elements.contains(element)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Counts the occurrences of the given elements by their identity.
+	 *
+	 * @param elements the elements
+	 * @return the identity based multiset
+	 */
+	@Nonnull
+	static Multiset<Equivalence.Wrapper<Object>> identityMultiset(@Nonnull Iterable<?> elements) {
+		Multiset<Equivalence.Wrapper<Object>> multiset = HashMultiset.create();
+		for (Object element : elements) {
+			multiset.add(IDENTITY.wrap(element));
+		}
+		return multiset;
 	}
 
 	@Nonnull
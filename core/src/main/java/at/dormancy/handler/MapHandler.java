@@ -16,13 +16,22 @@
 package at.dormancy.handler;
 
 import at.dormancy.Dormancy;
+import at.dormancy.handler.callback.CompletionCallback;
 import at.dormancy.util.DormancyContext;
+import at.dormancy.util.PendantIndex;
+import com.google.common.base.Equivalence;
+import com.google.common.collect.Maps;
 import org.springframework.core.CollectionFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -48,17 +57,35 @@ public class MapHandler implements StaticObjectHandler<Map<?, ?>> {
 	@SuppressWarnings("unchecked")
 	public <R extends Map<?, ?>, O extends R> R disconnect(@Nullable O dbObj, @Nonnull DormancyContext ctx) {
 		Map<Object, Object> adjacencyMap = ctx.getAdjacencyMap();
-		if (dbObj == null || adjacencyMap.containsKey(dbObj)) {
+		if (dbObj == null) {
+			return null;
+		} else if (adjacencyMap.containsKey(dbObj)) {
 			return (R) adjacencyMap.get(dbObj);
 		}
-		Map<Object, Object> map = (Map<Object, Object>) createObject(dbObj);
-		adjacencyMap.put(dbObj, map);
+		final Map<Object, Object> map = (Map<Object, Object>) createObject(dbObj);
+		Object previous = ctx.putIfAbsent(dbObj, map);
+		if (previous != null) {
+			return (R) previous;
+		}
 
+		// Keys and values are processed at once: the keys come first followed by the values in the same order
+		final int size = dbObj.size();
+		List<Object> dbObjs = new ArrayList<Object>(Collections.<Object>nCopies(size * 2, null));
+		int n = 0;
 		for (Map.Entry<?, ?> entry : dbObj.entrySet()) {
-			Object key = dormancy.asObjectHandler().disconnect(entry.getKey(), ctx);
-			Object value = dormancy.asObjectHandler().disconnect(entry.getValue(), ctx);
-			map.put(key, value);
+			dbObjs.set(n, entry.getKey());
+			dbObjs.set(size + n++, entry.getValue());
 		}
+
+		// The keys must not be added before they are processed completely because they are hashed
+		dormancy.disconnectAll(dbObjs, ctx, new CompletionCallback<List<Object>>() {
+			@Override
+			public void complete(@Nonnull List<Object> result) {
+				for (int i = 0; i < size; i++) {
+					map.put(result.get(i), result.get(size + i));
+				}
+			}
+		});
 		return (R) map;
 	}
 
@@ -80,37 +107,98 @@ public class MapHandler implements StaticObjectHandler<Map<?, ?>> {
 			return dbObj;
 		}
 
-		Map container = createObject(dbObj);
-		adjacencyMap.put(trObj, container);
+		adjacencyMap.put(trObj, dbObj);
 
-		// Create a modifiable copy of the persistent map
-		Map<Object, Object> dbCopy = (Map<Object, Object>) createObject(dbObj);
-		dbCopy.putAll(dbObj);
+		// Index the persistent keys for looking up the pendants of the transient keys
+		PendantIndex<?> index = dormancy.getUtils().createPendantIndex(dbObj.keySet());
 
+		// Keys and values are processed at once: the keys come first followed by the values in the same order
+		final int size = trObj.size();
+		List<Object> trObjs = new ArrayList<Object>(Collections.<Object>nCopies(size * 2, null));
+		List<Object> dbObjs = new ArrayList<Object>(Collections.<Object>nCopies(size * 2, null));
+		int n = 0;
 		for (Map.Entry<?, ?> trEntry : trObj.entrySet()) {
 			// For every transient key, find a persistent element and the associated value
-			Object dbKey = trEntry.getKey() == null ? null
-					: dormancy.getUtils().findPendant(trEntry.getKey(), dbCopy.keySet());
-			Object dbValue = dbKey != null ? dbObj.get(dbKey) : null;
-
-			// Merge the retrieved keys and values (if possible)
-			Object mKey = null, mValue = null;
-			if (trEntry.getKey() != null) {
-				mKey = dbKey != null ? dormancy.asObjectHandler().apply(trEntry.getKey(), dbKey, ctx)
-						: dormancy.asObjectHandler().apply(trEntry.getKey(), null, ctx);
-			}
-			if (trEntry.getValue() != null) {
-				mValue = dbValue != null ? dormancy.asObjectHandler().apply(trEntry.getValue(), dbValue, ctx)
-						: dormancy.asObjectHandler().apply(trEntry.getValue(), null, ctx);
+			Object dbKey = trEntry.getKey() == null ? null : index.remove(trEntry.getKey());
+			trObjs.set(n, trEntry.getKey());
+			trObjs.set(size + n, trEntry.getValue());
+			dbObjs.set(n, dbKey);
+			dbObjs.set(size + n++, dbKey != null ? dbObj.get(dbKey) : null);
+		}
+
+		// Merge the retrieved keys and values (if possible) and add them to the persistent collection afterwards
+		final R target = dbObj;
+		final List<Object> pendants = dbObjs;
+		dormancy.applyAll(trObjs, dbObjs, ctx, new CompletionCallback<List<Object>>() {
+			@Override
+			public void complete(@Nonnull List<Object> result) {
+				List<Object> elements = new ArrayList<Object>(result.size());
+				for (int i = 0; i < result.size(); i++) {
+					// Keep persistent keys and values, which are equal to the merged ones e.g., immutable values
+					Object element = result.get(i);
+					Object pendant = pendants.get(i);
+					elements.add(pendant != null && pendant != element && pendant.equals(element) ? pendant : element);
+				}
+
+				if (!merge((Map<Object, Object>) target, elements.subList(0, size), elements.subList(size, size * 2))) {
+					Map<Object, Object> container = (Map<Object, Object>) createObject(target);
+					for (int i = 0; i < size; i++) {
+						container.put(result.get(i), result.get(size + i));
+					}
+					target.clear();
+					((Map<Object, Object>) target).putAll(container);
+				}
 			}
+		});
+		return dbObj;
+	}
 
-			container.put(mKey, mValue);
+	/**
+	 * Modifies the persistent map so that it contains exactly the given entries.<br/>
+	 * Only the differences are applied i.e., entries, whose keys are not contained anymore, are removed and new or
+	 * changed entries are put. Thus, persistent maps, which are not changed, are not marked as dirty. Keys and values
+	 * are compared by identity.
+	 * <p/>
+	 * If a key cannot be found anymore e.g., because applying the changes modified its hash code, nothing is done and
+	 * {@code false} is returned.
+	 *
+	 * @param target the persistent map
+	 * @param keys   the keys the map should contain
+	 * @param values the values associated with the keys in the same order
+	 * @return {@code true} if the map was merged, {@code false} if it has to be rebuilt
+	 */
+	protected boolean merge(@Nonnull Map<Object, Object> target, @Nonnull List<Object> keys,
+							@Nonnull List<Object> values) {
+		if (!CollectionHandler.isIntact(target.keySet())) {
+			return false;
 		}
 
-		// Add the processed entities to the persistent collection
-		dbObj.clear();
-		dbObj.putAll(container);
-		return dbObj;
+		Map<Equivalence.Wrapper<Object>, Object> entries = new LinkedHashMap<Equivalence.Wrapper<Object>, Object>();
+		for (int i = 0; i < keys.size(); i++) {
+			entries.put(CollectionHandler.IDENTITY.wrap(keys.get(i)), values.get(i));
+		}
+
+		// Values are not replaced while iterating because not every map supports modifying entries
+		List<Map.Entry<?, ?>> changed = new ArrayList<Map.Entry<?, ?>>();
+		for (Iterator<Map.Entry<Object, Object>> iterator = target.entrySet().iterator(); iterator.hasNext(); ) {
+			Map.Entry<Object, Object> entry = iterator.next();
+			Equivalence.Wrapper<Object> key = CollectionHandler.IDENTITY.wrap(entry.getKey());
+			if (!entries.containsKey(key)) {
+				iterator.remove();
+			} else {
+				Object value = entries.remove(key);
+				if (value != entry.getValue()) {
+					changed.add(Maps.immutableEntry(entry.getKey(), value));
+				}
+			}
+		}
+		for (Map.Entry<?, ?> entry : changed) {
+			target.put(entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<Equivalence.Wrapper<Object>, Object> entry : entries.entrySet()) {
+			target.put(entry.getKey().get(), entry.getValue());
+		}
+		return true;
 	}
 
 	@Nonnull
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.handler.callback;
+
+import at.dormancy.Dormancy;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Callback interface for results that are available as soon as the objects they consist of are processed completely.
+ *
+ * @param <T> the type of the result
+ * @author Gregor Schauer
+ * @see Dormancy#disconnectAll(java.util.Collection, at.dormancy.util.DormancyContext, CompletionCallback)
+ * @see Dormancy#applyAll(java.util.List, java.util.List, at.dormancy.util.DormancyContext, CompletionCallback)
+ * @since 2.0.0
+ */
+public interface CompletionCallback<T> {
+	/**
+	 * Gets called once all objects contained in the result are processed completely.
+	 *
+	 * @param result the result
+	 */
+	void complete(@Nonnull T result);
+}
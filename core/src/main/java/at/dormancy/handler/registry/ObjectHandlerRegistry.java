@@ -21,20 +21,26 @@ import at.dormancy.handler.ObjectHandler;
 import at.dormancy.handler.StaticObjectHandler;
 import at.dormancy.persistence.PersistenceUnitProvider;
 import at.dormancy.persistence.PersistenceUnitProviderAware;
+import com.google.common.base.Function;
 import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
 import com.google.common.collect.Ordering;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.log4j.Logger;
 import org.springframework.beans.BeanUtils;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.util.ClassUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 
 import static org.springframework.util.CollectionUtils.isEmpty;
@@ -47,10 +53,28 @@ import static org.springframework.util.CollectionUtils.isEmpty;
  */
 public class ObjectHandlerRegistry {
 	private static final Logger logger = Logger.getLogger(ObjectHandlerRegistry.class);
+	/**
+	 * Orders {@link ObjectHandler ObjectHandlers} by their priority.<br/>
+	 * The priority is specified by implementing {@link org.springframework.core.Ordered} or by annotating the
+	 * handler with {@link org.springframework.core.annotation.Order}. Handlers of equal priority are ordered by their
+	 * class name so that the resolution does not depend on the registration or iteration order.
+	 */
+	protected static final Ordering<Object> PRIORITY = Ordering.from(new AnnotationAwareOrderComparator())
+			.compound(Ordering.natural().onResultOf(new Function<Object, String>() {
+				@Override
+				public String apply(Object input) {
+					return input.getClass().getName();
+				}
+			})).compound(Ordering.arbitrary());
 	protected Map<Class<?>, ObjectHandler<?>> handlerMap = new ConcurrentHashMap<Class<?>, ObjectHandler<?>>();
-	protected Set<DynamicObjectHandler<?>> dynamicHandlers =
-			new ConcurrentSkipListSet<DynamicObjectHandler<?>>(Ordering.allEqual());
+	protected Set<DynamicObjectHandler<?>> dynamicHandlers = new ConcurrentSkipListSet<DynamicObjectHandler<?>>(PRIORITY);
 	protected PersistenceUnitProvider<?, ?, ?> persistenceUnitProvider;
+	/**
+	 * Caches the resolved {@link ObjectHandler} (or its absence) per type.<br/>
+	 * The map is replaced whenever a handler is registered so that concurrent lookups never populate a stale map.
+	 */
+	protected volatile ConcurrentMap<Class<?>, Optional<ObjectHandler<?>>> resolvedHandlers =
+			new ConcurrentHashMap<Class<?>, Optional<ObjectHandler<?>>>();
 	protected Dormancy<?, ?, ?> dormancy;
 
 	@Inject
@@ -68,45 +92,73 @@ public class ObjectHandlerRegistry {
 	@Nullable
 	@SuppressWarnings("unchecked")
 	public <T> ObjectHandler<T> getObjectHandler(@Nullable Class<? extends T> clazz) {
+		if (clazz == null) {
+			return null;
+		}
+		ConcurrentMap<Class<?>, Optional<ObjectHandler<?>>> resolved = resolvedHandlers;
+		Optional<ObjectHandler<?>> handler = resolved.get(clazz);
+		if (handler == null) {
+			handler = Optional.<ObjectHandler<?>>fromNullable(resolveObjectHandler(clazz));
+			resolved.put(clazz, handler);
+		}
+		return (ObjectHandler<T>) handler.orNull();
+	}
+
+	/**
+	 * Resolves the {@link ObjectHandler} for the given type without consulting the lookup cache.
+	 *
+	 * @param clazz the type of the object to process
+	 * @param <T>   the type of the object to process
+	 * @return the ObjectHandler or {@code null} if there is none available.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	protected <T> ObjectHandler<T> resolveObjectHandler(@Nonnull Class<? extends T> clazz) {
 		ObjectHandler<T> handler = (ObjectHandler<T>) handlerMap.get(clazz);
-		if (handler == null && clazz != null && !handlerMap.containsKey(clazz)) {
+		if (handler == null && !handlerMap.containsKey(clazz)) {
 			handler = findObjectHandler(clazz);
 
 			if (handler == null) {
 				for (DynamicObjectHandler dynamicHandler : dynamicHandlers) {
 					if (dynamicHandler.getPredicate().apply(clazz)) {
 						handler = dynamicHandler;
-						logger.info(String.format("Using DynamicObjectHandler %s for type '%s'",
-								handler.getClass().getSimpleName(), clazz.getName()));
+						if (logger.isDebugEnabled()) {
+							logger.debug(String.format("Using DynamicObjectHandler %s for type '%s'",
+									handler.getClass().getSimpleName(), clazz.getName()));
+						}
 						break;
 					}
 				}
 			}
-			if (handler != null) {
-				logger.info(String.format("Registering handler %s for type %s",
-						handler.getClass().getSimpleName(), clazz.getName()));
-				handlerMap.put(clazz, handler);
-			}
 		}
-		if (handler == null && clazz != null) {
+		if (handler == null) {
 			for (ObjectHandler<?> h : handlerMap.values()) {
-				if (h instanceof DynamicObjectHandler) {
+				if (h instanceof DynamicObjectHandler && (handler == null || PRIORITY.compare(h, handler) < 0)) {
 					if (((DynamicObjectHandler) h).getPredicate().apply(clazz)) {
 						handler = (ObjectHandler<T>) h;
-						logger.info(String.format("Registering handler %s for type %s",
-								handler.getClass().getSimpleName(), clazz.getName()));
-						handlerMap.put(clazz, handler);
-						break;
 					}
 				}
 			}
 		}
-
+		if (handler != null && logger.isDebugEnabled()) {
+			logger.debug(String.format("Resolved handler %s for type %s",
+					handler.getClass().getSimpleName(), clazz.getName()));
+		}
 		return handler;
 	}
 
 	/**
-	 * Finds the {@link ObjectHandler} to be used for the given type.
+	 * Discards all resolved {@link ObjectHandler ObjectHandlers}.<br/>
+	 * This method has to be invoked after modifying {@link #handlerMap} or {@link #dynamicHandlers} directly.
+	 */
+	public void invalidate() {
+		resolvedHandlers = new ConcurrentHashMap<Class<?>, Optional<ObjectHandler<?>>>();
+	}
+
+	/**
+	 * Finds the {@link ObjectHandler} to be used for the given type.<br/>
+	 * If handlers are registered for several supertypes, the one registered for the most specific type is chosen.
+	 * Handlers registered for unrelated supertypes (e.g., two interfaces) are chosen by their {@link #PRIORITY}.
 	 *
 	 * @param clazz the type
 	 * @param <T>   the type of the class
@@ -115,12 +167,38 @@ public class ObjectHandlerRegistry {
 	@Nullable
 	@SuppressWarnings("unchecked")
 	protected <T> ObjectHandler<T> findObjectHandler(@Nonnull Class<? extends T> clazz) {
+		List<Map.Entry<Class<?>, ObjectHandler<?>>> candidates = new ArrayList<Map.Entry<Class<?>, ObjectHandler<?>>>();
 		for (Map.Entry<Class<?>, ObjectHandler<?>> entry : handlerMap.entrySet()) {
 			if (entry.getKey().isAssignableFrom(clazz)) {
-				return (ObjectHandler<T>) entry.getValue();
+				candidates.add(entry);
+			}
+		}
+
+		ObjectHandler<?> handler = null;
+		for (Map.Entry<Class<?>, ObjectHandler<?>> candidate : candidates) {
+			if (isMostSpecific(candidate.getKey(), candidates)
+					&& (handler == null || PRIORITY.compare(candidate.getValue(), handler) < 0)) {
+				handler = candidate.getValue();
+			}
+		}
+		return (ObjectHandler<T>) handler;
+	}
+
+	/**
+	 * Checks if none of the given candidates is registered for a subtype of the given type.
+	 *
+	 * @param type       the type to check
+	 * @param candidates the registrations applicable for the type to resolve
+	 * @return {@code true} if the type is the most specific one, {@code false} otherwise
+	 */
+	private static boolean isMostSpecific(@Nonnull Class<?> type,
+										  @Nonnull List<Map.Entry<Class<?>, ObjectHandler<?>>> candidates) {
+		for (Map.Entry<Class<?>, ObjectHandler<?>> candidate : candidates) {
+			if (candidate.getKey() != type && type.isAssignableFrom(candidate.getKey())) {
+				return false;
 			}
 		}
-		return null;
+		return true;
 	}
 
 	/**
@@ -158,6 +236,7 @@ public class ObjectHandlerRegistry {
 			logger.info(String.format("Registering dynamic ObjectHandler %s", handler.getClass().getSimpleName()));
 			dynamicHandlers.add((DynamicObjectHandler) handler);
 		}
+		invalidate();
 	}
 
 	/**
@@ -193,6 +272,7 @@ public class ObjectHandlerRegistry {
 	public void setObjectHandlers(@Nonnull Iterable<ObjectHandler<?>> objectHandlers) {
 		handlerMap.clear();
 		dynamicHandlers.clear();
+		invalidate();
 
 		for (ObjectHandler<?> handler : objectHandlers) {
 			addObjectHandler(handler);
@@ -19,6 +19,7 @@ import at.dormancy.access.AccessType;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import org.apache.commons.lang.ArrayUtils;
 
 import javax.annotation.Nonnull;
@@ -126,4 +127,28 @@ public class ObjectMetadata {
 	public Class<?> getType() {
 		return type;
 	}
+
+	/**
+	 * Checks whether the given object describes the same properties of the same type.<br/>
+	 * The order of the properties is significant because it determines the order in which they are processed.
+	 *
+	 * @param obj the object to compare with
+	 * @return {@code true} if the metadata are equal, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (!(obj instanceof ObjectMetadata)) {
+			return false;
+		}
+		ObjectMetadata other = (ObjectMetadata) obj;
+		return type == other.type && Iterables.elementsEqual(propertyAccessTypeMap.entrySet(),
+				other.propertyAccessTypeMap.entrySet());
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + propertyAccessTypeMap.hashCode();
+	}
 }
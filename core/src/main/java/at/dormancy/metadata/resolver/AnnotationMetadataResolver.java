@@ -20,6 +20,7 @@ import at.dormancy.metadata.ObjectMetadata;
 import at.dormancy.persistence.PersistenceUnitProvider;
 import at.dormancy.util.AbstractDormancyUtils;
 import com.google.common.base.Joiner;
+import com.google.common.util.concurrent.Striped;
 import org.apache.log4j.Logger;
 import org.springframework.util.ReflectionUtils;
 
@@ -33,10 +34,12 @@ import java.lang.reflect.Method;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import static at.dormancy.access.AccessType.*;
 import static org.apache.commons.lang.StringUtils.upperCase;
 import static org.springframework.beans.BeanUtils.findPropertyForMethod;
+import static org.springframework.beans.BeanUtils.getPropertyDescriptors;
 import static org.springframework.core.annotation.AnnotationUtils.getValue;
 import static org.springframework.util.ReflectionUtils.*;
 
@@ -50,6 +53,11 @@ import static org.springframework.util.ReflectionUtils.*;
  */
 public abstract class AnnotationMetadataResolver<PMD> implements MetadataResolver {
 	private static final Logger logger = Logger.getLogger(FieldMetadataResolver.class);
+	/**
+	 * Guards the introspection of types, which is not thread-safe in all versions of Spring.<br/>
+	 * Different types are likely to be guarded by different locks so that they can be introspected in parallel.
+	 */
+	private static final Striped<Lock> INTROSPECTION_LOCKS = Striped.lock(64);
 
 	@SuppressWarnings("unchecked")
 	protected Class<? extends Annotation>[] accessAnnotations = new Class[0];
@@ -57,7 +65,6 @@ public abstract class AnnotationMetadataResolver<PMD> implements MetadataResolve
 	protected Class<? extends Annotation>[] idAnnotations = new Class[0];
 
 	protected AbstractDormancyUtils<?, ?, PMD, ? extends PersistenceUnitProvider<?, ?, PMD>> utils;
-	protected AccessType defaultAccessType;
 
 	protected AnnotationMetadataResolver(@Nonnull AbstractDormancyUtils<?, ?, PMD,
 			? extends PersistenceUnitProvider<?, ?, PMD>> utils) {
@@ -76,28 +83,38 @@ public abstract class AnnotationMetadataResolver<PMD> implements MetadataResolve
 		final Map<String, AccessType> propertyAccessTypeMap = new LinkedHashMap<String, AccessType>();
 		PMD metadata = utils.getMetadata(entityType);
 
-		detectAccessType(entityType, metadata);
+		// Introspecting a type concurrently for the first time may cache incomplete property descriptors
+		Lock lock = INTROSPECTION_LOCKS.get(entityType);
+		lock.lock();
+		try {
+			getPropertyDescriptors(entityType);
+		} finally {
+			lock.unlock();
+		}
+
+		// The access type is kept locally because resolvers are shared by all threads
+		AccessType accessType = detectAccessType(entityType, metadata);
 		final Set<String> propertyNames = findProperties(entityType, metadata);
 
 		/**
 		 * If the determination of the default access type was not successful so far i.e., because there is a field
 		 * annotated with the ID annotation, use field access by default
 		 */
-		if (getDefaultAccessType() == null) {
+		if (accessType == null) {
 			Method[] methods = getAllDeclaredMethods(entityType);
-			AccessType entityAccessType = FIELD;
+			accessType = FIELD;
 			for (Method method : methods) {
 				// If a method is annotated with a ID annotation, property access is used by default
 				if (getAnnotation(method, getIdAnnotations()) != null) {
-					entityAccessType = PROPERTY;
+					accessType = PROPERTY;
 					break;
 				}
 			}
-			setDefaultAccessType(entityAccessType);
 		}
+		final AccessType defaultAccessType = accessType;
 
 		// Determine whether some properties must be accessed differently
-		if (getDefaultAccessType() == FIELD) {
+		if (defaultAccessType == FIELD) {
 			// If field access is used by default, scan for fields annotated with an access annotation
 			doWithFields(entityType, new FieldCallback() {
 				@Override
@@ -107,7 +124,7 @@ public abstract class AnnotationMetadataResolver<PMD> implements MetadataResolve
 
 					// If a annotation was found, map the access type to the appropriate mode.
 					// Otherwise, use the default mode for the type.
-					AccessType accessType = annotation == null ? getDefaultAccessType()
+					AccessType accessType = annotation == null ? defaultAccessType
 							: valueOf(upperCase(String.valueOf(getValue(annotation))));
 					propertyAccessTypeMap.put(field.getName(), accessType);
 				}
@@ -131,7 +148,7 @@ public abstract class AnnotationMetadataResolver<PMD> implements MetadataResolve
 
 					// If a annotation was found, map the access type to the appropriate mode.
 					// Otherwise, use the default mode for the type.
-					AccessType accessType = annotation == null ? getDefaultAccessType()
+					AccessType accessType = annotation == null ? defaultAccessType
 							: valueOf(upperCase(String.valueOf(getValue(annotation))));
 					propertyAccessTypeMap.put(descriptor.getName(), accessType);
 				}
@@ -150,12 +167,18 @@ public abstract class AnnotationMetadataResolver<PMD> implements MetadataResolve
 		return new ObjectMetadata(entityType, propertyAccessTypeMap);
 	}
 
-	protected void detectAccessType(@Nonnull Class<?> entityType, @Nullable PMD metadata) {
+	/**
+	 * Determines the default access type of the given entity type.
+	 *
+	 * @param entityType the entity type
+	 * @param metadata   the persistence metadata of the entity type (if available)
+	 * @return the default access type or {@code null} if it cannot be determined
+	 */
+	@Nullable
+	protected AccessType detectAccessType(@Nonnull Class<?> entityType, @Nullable PMD metadata) {
 		// Retrieve the default access type for the entity type by looking up access annotations on type level
 		Annotation accessType = getAnnotation(entityType, getAccessAnnotations());
-		AccessType entityAccessType = accessType == null ? null
-				: valueOf(upperCase(String.valueOf(getValue(accessType))));
-		setDefaultAccessType(entityAccessType);
+		return accessType == null ? null : valueOf(upperCase(String.valueOf(getValue(accessType))));
 	}
 
 	@Nonnull
@@ -199,24 +222,4 @@ public abstract class AnnotationMetadataResolver<PMD> implements MetadataResolve
 		}
 		return null;
 	}
-
-
-	/**
-	 * Returns the default access mode for the entity type.
-	 *
-	 * @return the access mode
-	 */
-	@Nullable
-	public AccessType getDefaultAccessType() {
-		return defaultAccessType;
-	}
-
-	/**
-	 * Sets the default access mode for the entity type.
-	 *
-	 * @param defaultAccessType the mode to set
-	 */
-	public void setDefaultAccessType(@Nullable AccessType defaultAccessType) {
-		this.defaultAccessType = defaultAccessType;
-	}
 }
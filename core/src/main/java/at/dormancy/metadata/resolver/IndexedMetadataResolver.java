@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.metadata.resolver;
+
+import at.dormancy.access.AccessType;
+import at.dormancy.metadata.ObjectMetadata;
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import org.apache.log4j.Logger;
+import org.springframework.util.ClassUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Resolves metadata from a precomputed index and delegates to another {@link MetadataResolver} for unknown types.
+ * <p/>
+ * The index avoids scanning entity types for annotations, fields and methods at runtime. It consists of all
+ * {@link #INDEX_LOCATION} resources found in the classpath. Every entry maps the fully qualified name of a type to
+ * its properties and their access types e.g., {@code com.example.Book=id:FIELD,title:FIELD}.<br/>
+ * An index is created by resolving the metadata of all entities (e.g., with the resolver of the persistence provider)
+ * during the build and {@link #write(Iterable, Writer) writing} it into the resources of the application. Note that
+ * the index has to be recreated whenever the entities are modified.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class IndexedMetadataResolver implements MetadataResolver {
+	private static final Logger logger = Logger.getLogger(IndexedMetadataResolver.class);
+	/**
+	 * The location of the index within the classpath
+	 */
+	public static final String INDEX_LOCATION = "META-INF/dormancy/metadata.properties";
+	private static final Splitter PROPERTY_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+	private static final Splitter ACCESS_TYPE_SPLITTER = Splitter.on(':').trimResults().limit(2);
+
+	protected final MetadataResolver delegate;
+	protected final ImmutableMap<String, String> index;
+
+	/**
+	 * Creates a resolver, which uses the index found in the classpath of the default class loader.
+	 *
+	 * @param delegate the resolver to use for types not contained in the index
+	 */
+	public IndexedMetadataResolver(@Nonnull MetadataResolver delegate) {
+		this(delegate, load(ClassUtils.getDefaultClassLoader()));
+	}
+
+	/**
+	 * Creates a resolver, which uses the given index.
+	 *
+	 * @param delegate the resolver to use for types not contained in the index
+	 * @param index    the type names mapped to their properties
+	 */
+	public IndexedMetadataResolver(@Nonnull MetadataResolver delegate, @Nonnull Map<String, String> index) {
+		this.delegate = delegate;
+		this.index = ImmutableMap.copyOf(index);
+	}
+
+	@Nonnull
+	@Override
+	public ObjectMetadata getMetadata(@Nonnull Class<?> clazz) {
+		String properties = index.get(clazz.getName());
+		if (properties == null) {
+			return delegate.getMetadata(clazz);
+		}
+
+		Map<String, AccessType> propertyAccessTypeMap = new LinkedHashMap<String, AccessType>();
+		for (String property : PROPERTY_SPLITTER.split(properties)) {
+			List<String> parts = new ArrayList<String>(2);
+			for (String part : ACCESS_TYPE_SPLITTER.split(property)) {
+				parts.add(part);
+			}
+			AccessType accessType = parts.size() < 2 ? AccessType.FIELD : AccessType.valueOf(parts.get(1));
+			propertyAccessTypeMap.put(parts.get(0), accessType);
+		}
+		return new ObjectMetadata(clazz, propertyAccessTypeMap);
+	}
+
+	/**
+	 * Loads and merges all indices found in the classpath of the given class loader.
+	 *
+	 * @param classLoader the class loader to use
+	 * @return the type names mapped to their properties
+	 */
+	@Nonnull
+	public static Map<String, String> load(@Nullable ClassLoader classLoader) {
+		Map<String, String> index = new LinkedHashMap<String, String>();
+		try {
+			Enumeration<URL> resources = classLoader != null
+					? classLoader.getResources(INDEX_LOCATION) : ClassLoader.getSystemResources(INDEX_LOCATION);
+			while (resources.hasMoreElements()) {
+				URL url = resources.nextElement();
+				Properties properties = new Properties();
+				Reader reader = new InputStreamReader(url.openStream(), Charsets.UTF_8);
+				try {
+					properties.load(reader);
+				} finally {
+					reader.close();
+				}
+				for (String name : properties.stringPropertyNames()) {
+					index.put(name, properties.getProperty(name));
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug(String.format("Loaded metadata of %d types from %s", properties.size(), url));
+				}
+			}
+		} catch (IOException e) {
+			throw Throwables.propagate(e);
+		}
+		return index;
+	}
+
+	/**
+	 * Writes an index containing the given metadata.<br/>
+	 * The entries are sorted by type name in order to produce the same output for the same metadata.
+	 *
+	 * @param metadata the metadata to write
+	 * @param writer   the writer to use
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void write(@Nonnull Iterable<ObjectMetadata> metadata, @Nonnull Writer writer) throws IOException {
+		Map<String, String> index = new TreeMap<String, String>();
+		for (ObjectMetadata objectMetadata : metadata) {
+			List<String> properties = new ArrayList<String>(objectMetadata.getProperties().size());
+			for (String property : objectMetadata.getProperties()) {
+				properties.add(property + ':' + objectMetadata.getAccessType(property));
+			}
+			index.put(objectMetadata.getType().getName(), Joiner.on(',').join(properties));
+		}
+		for (Map.Entry<String, String> entry : index.entrySet()) {
+			writer.write(entry.getKey() + '=' + entry.getValue() + '\n');
+		}
+		writer.flush();
+	}
+}
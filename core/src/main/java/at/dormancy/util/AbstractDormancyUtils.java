@@ -15,18 +15,32 @@
  */
 package at.dormancy.util;
 
+import at.dormancy.access.CopyPlan;
 import at.dormancy.metadata.ObjectMetadata;
+import at.dormancy.metadata.resolver.IndexedMetadataResolver;
 import at.dormancy.persistence.PersistenceUnitProvider;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.springframework.util.ReflectionUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,8 +54,45 @@ import java.util.Map;
  */
 public abstract class AbstractDormancyUtils<PU, PC, PMD, PUP extends PersistenceUnitProvider<PU, PC, PMD>> {
 	protected static final Class<? extends Annotation> ID_CLASS;
+	/**
+	 * The maximum number of {@link CopyPlan}s cached for custom metadata.
+	 */
+	protected static final int MAX_CUSTOM_COPY_PLANS = 1000;
 
-	protected final Map<Class<?>, ObjectMetadata> objectMetadataMap = Maps.newConcurrentMap();
+	/**
+	 * Holds the {@link ObjectMetadata} per type.<br/>
+	 * Metadata are created once per type even if they are requested by several threads simultaneously.
+	 */
+	protected final LoadingCache<Class<?>, ObjectMetadata> objectMetadataCache = CacheBuilder.newBuilder()
+			.build(new CacheLoader<Class<?>, ObjectMetadata>() {
+				@Override
+				public ObjectMetadata load(@Nonnull Class<?> key) {
+					return createObjectMetadata(key);
+				}
+			});
+	/**
+	 * Holds the unproxified type per class.<br/>
+	 * Classes are referenced weakly in order to not prevent them from being unloaded.
+	 */
+	protected final LoadingCache<Class<?>, Class<?>> unproxifiedClassCache = CacheBuilder.newBuilder()
+			.weakKeys().weakValues()
+			.build(new CacheLoader<Class<?>, Class<?>>() {
+				@Override
+				public Class<?> load(@Nonnull Class<?> key) {
+					Class<?> clazz = key;
+					while (isProxy(clazz)) {
+						clazz = clazz.getSuperclass();
+					}
+					return clazz;
+				}
+			});
+	protected final Map<Class<?>, CopyPlan> copyPlanMap = Maps.newConcurrentMap();
+	/**
+	 * Holds the {@link CopyPlan}s for custom metadata per type and metadata.
+	 */
+	protected final Cache<List<Object>, CopyPlan> customCopyPlanCache =
+			CacheBuilder.newBuilder().maximumSize(MAX_CUSTOM_COPY_PLANS).build();
+	protected final Map<Class<?>, MatchingStrategy> matchingStrategyMap = Maps.newConcurrentMap();
 	protected PUP persistenceUnitProvider;
 
 	static {
@@ -62,45 +113,98 @@ public abstract class AbstractDormancyUtils<PU, PC, PMD, PUP extends Persistence
 	 * another object</li>
 	 * <li>the given object has a non-null identifier and its type as well as the identifier value is equals to the
 	 * type and identifier value of another object</li>
+	 * <li>the given object is neither an entity nor does it override the {@link #equals(Object)} method, and the
+	 * collection contains the very same object</li>
 	 * </ul>
 	 *
 	 * @param obj        the object
 	 * @param collection the collection to traverse
 	 * @param <T>        the type of the object
 	 * @return the object found or {@code null} if the collection does not contain such an object
+	 * @see #getMatchingStrategy(Class)
 	 * @see #getIdentifierValue(Object, Object)
 	 */
 	@Nullable
 	@SuppressWarnings("unchecked")
 	public <T> T findPendant(@Nonnull T obj, @Nonnull Collection<?> collection) {
-		Method method = ReflectionUtils.findMethod(getClass(obj), "equals", Object.class);
-		if (method.getDeclaringClass() != Object.class) {
+		Class<?> clazz = getClass(obj);
+		MatchingStrategy strategy = getMatchingStrategy(clazz);
+		if (strategy == MatchingStrategy.EQUALS || strategy == MatchingStrategy.EQUALS_WITHOUT_HASH_CODE) {
 			// If the given object overrides the equals() method, invoke it for every object in the collection
 			for (Object elem : collection) {
 				if (obj.equals(elem) && collection.remove(elem)) {
 					return (T) elem;
 				}
 			}
-		} else {
+		} else if (strategy == MatchingStrategy.IDENTIFIER) {
 			// Otherwise get the Hibernate metadata and a PropertyAccessor to get the identifier
-			PMD objMetadata = getMetadata(obj);
-			if (objMetadata == null) {
+			PMD objMetadata = getMetadata(clazz);
+			Serializable objIdentifier = objMetadata != null ? getIdentifier(objMetadata, obj) : null;
+			if (objIdentifier == null) {
 				return null;
 			}
-			Serializable objIdentifier = getIdentifier(objMetadata, obj);
 
 			// For every object in the collection, check if the type matches and if the identifier is equal
 			for (Object elem : collection) {
-				if (elem != null && elem.getClass() == obj.getClass()
+				if (elem != null && getClass(elem) == clazz
 						&& objIdentifier.equals(getIdentifier(objMetadata, elem))
 						&& collection.remove(elem)) {
 					return (T) elem;
 				}
 			}
+		} else {
+			// The object can only be found by its identity
+			for (Object elem : collection) {
+				if (elem == obj && collection.remove(elem)) {
+					return (T) elem;
+				}
+			}
 		}
 		return null;
 	}
 
+	/**
+	 * Returns the {@link MatchingStrategy} to use for finding pendants of objects of the given type.<br/>
+	 * The strategy is determined once per type and cached afterwards.
+	 *
+	 * @param clazz the type
+	 * @return the matching strategy
+	 * @see #findPendant(Object, Collection)
+	 * @see PendantIndex
+	 */
+	@Nonnull
+	public MatchingStrategy getMatchingStrategy(@Nonnull Class<?> clazz) {
+		MatchingStrategy strategy = matchingStrategyMap.get(clazz);
+		if (strategy == null) {
+			Class<?> type = getClass(clazz);
+			if (isOverridden(type, "equals", Object.class)) {
+				strategy = isOverridden(type, "hashCode")
+						? MatchingStrategy.EQUALS : MatchingStrategy.EQUALS_WITHOUT_HASH_CODE;
+			} else {
+				strategy = getMetadata(type) != null ? MatchingStrategy.IDENTIFIER : MatchingStrategy.IDENTITY;
+			}
+			matchingStrategyMap.put(clazz, strategy);
+		}
+		return strategy;
+	}
+
+	private static boolean isOverridden(@Nonnull Class<?> clazz, @Nonnull String name, @Nonnull Class<?>... types) {
+		Method method = ReflectionUtils.findMethod(clazz, name, types);
+		return method != null && method.getDeclaringClass() != Object.class;
+	}
+
+	/**
+	 * Creates a {@link PendantIndex} for looking up the pendants of multiple objects within the given collection.<br/>
+	 * In contrast to {@link #findPendant(Object, Collection)}, the collection is not modified.
+	 *
+	 * @param collection the collection containing the candidates
+	 * @return the index
+	 */
+	@Nonnull
+	public PendantIndex<PMD> createPendantIndex(@Nonnull Collection<?> collection) {
+		return new PendantIndex<PMD>(this, collection);
+	}
+
 	/**
 	 * Gets the persistence metadata associated with the given entity class.
 	 *
@@ -137,19 +241,18 @@ public abstract class AbstractDormancyUtils<PU, PC, PMD, PUP extends Persistence
 	}
 
 	/**
-	 * Gets the real type of the given class.
+	 * Gets the real type of the given class.<br/>
+	 * The type is determined once per class and cached afterwards.
 	 *
 	 * @param clazz the type
 	 * @param <T>   the type of the object
 	 * @return the true class of the type
+	 * @see #isProxy(Class)
 	 */
 	@Nonnull
 	@SuppressWarnings("unchecked")
 	public <T> Class<T> getClass(@Nonnull Class<?> clazz) {
-		while (isProxy(clazz)) {
-			clazz = clazz.getSuperclass();
-		}
-		return (Class<T>) clazz;
+		return (Class<T>) unproxifiedClassCache.getUnchecked(clazz);
 	}
 
 	/**
@@ -226,24 +329,56 @@ public abstract class AbstractDormancyUtils<PU, PC, PMD, PUP extends Persistence
 	 */
 	@Nonnull
 	public ObjectMetadata getObjectMetadata(@Nonnull Class<?> clazz) {
-		clazz = getClass(clazz);
-		ObjectMetadata metadata = objectMetadataMap.get(clazz);
-		if (metadata == null) {
-			metadata = createObjectMetadata(clazz);
-			objectMetadataMap.put(clazz, metadata);
+		try {
+			return objectMetadataCache.getUnchecked(getClass(clazz));
+		} catch (UncheckedExecutionException e) {
+			throw Throwables.propagate(e.getCause());
 		}
-		return metadata;
 	}
 
 	/**
 	 * Sets the {@link ObjectMetadata} to use for accessing properties declared within the given type.<br/>
 	 *
 	 * @param clazz    the type
-	 * @param metadata the metadata to use (can be {@code null})
+	 * @param metadata the metadata to use or {@code null} for creating the metadata again on-demand
 	 */
 	@SuppressWarnings("unused")
 	public void setObjectMetadata(@Nonnull Class<?> clazz, @Nullable ObjectMetadata metadata) {
-		objectMetadataMap.put(getClass(clazz), metadata);
+		if (metadata == null) {
+			objectMetadataCache.invalidate(getClass(clazz));
+		} else {
+			objectMetadataCache.put(getClass(clazz), metadata);
+		}
+	}
+
+	/**
+	 * Returns the {@link CopyPlan} to use for accessing the properties of objects of the given type.<br/>
+	 * Plans for the metadata registered for the type are cached per type. Plans for custom metadata e.g., provided
+	 * by a {@link DormancyContext}, are cached per type and metadata so that equal metadata share the same plan.
+	 *
+	 * @param clazz    the type
+	 * @param metadata the metadata describing the properties to access
+	 * @return the plan to use
+	 * @see #getObjectMetadata(Class)
+	 */
+	@Nonnull
+	public CopyPlan getCopyPlan(@Nonnull Class<?> clazz, @Nonnull ObjectMetadata metadata) {
+		CopyPlan plan = copyPlanMap.get(clazz);
+		if (plan != null && plan.getMetadata() == metadata) {
+			return plan;
+		} else if (objectMetadataCache.getIfPresent(getClass(clazz)) == metadata) {
+			plan = new CopyPlan(clazz, metadata);
+			copyPlanMap.put(clazz, plan);
+			return plan;
+		}
+
+		List<Object> key = Arrays.<Object>asList(clazz, metadata);
+		plan = customCopyPlanCache.getIfPresent(key);
+		if (plan == null) {
+			plan = new CopyPlan(clazz, metadata);
+			customCopyPlanCache.put(key, plan);
+		}
+		return plan;
 	}
 
 	/**
@@ -266,13 +401,20 @@ public abstract class AbstractDormancyUtils<PU, PC, PMD, PUP extends Persistence
 	public abstract boolean isInitialized(@Nullable Object obj);
 
 	/**
-	 * Checks if the given class is a proxy of a persistent object.
+	 * Checks if the given class is a proxy of a persistent object.<br/>
+	 * Proxies generated by Javassist, cglib and Byte Buddy are recognized by their naming conventions. Backends may
+	 * detect further proxies.
+	 * <p/>
+	 * Note that the result is cached by {@link #getClass(Class)}, which should be preferred.
 	 *
 	 * @param clazz the class to check
 	 * @return {@code true} if the given class is a proxy.
 	 */
 	public boolean isProxy(@Nonnull Class<?> clazz) {
-		return clazz.getSimpleName().contains("$$_javassist") || clazz.getSimpleName().contains("$$_jvst");
+		// Class.getName() is cached by the JVM whereas Class.getSimpleName() is computed on every invocation
+		String name = clazz.getName();
+		return name.contains("$$_javassist") || name.contains("$$_jvst")
+				|| name.contains("$$EnhancerBy") || name.contains("$ByteBuddy$") || name.contains("$HibernateProxy$");
 	}
 
 	/**
@@ -307,6 +449,86 @@ public abstract class AbstractDormancyUtils<PU, PC, PMD, PUP extends Persistence
 	@Nullable
 	public abstract <T> T find(@Nonnull Class<T> clazz, @Nonnull Serializable id);
 
+	/**
+	 * Returns the persistent instances of the given entity class with the given identifiers.<br/>
+	 * Identifiers without a persistent instance are silently ignored. Thus, the resulting list may contain less
+	 * elements than identifiers are given and the order of the elements is not specified.
+	 * <p/>
+	 * The default implementation invokes {@link #find(Class, Serializable)} for every identifier. Subclasses should
+	 * override this method in order to retrieve the instances with a single query.
+	 *
+	 * @param clazz the persistent class
+	 * @param ids   the identifiers
+	 * @param <T>   the type of the objects
+	 * @return the persistent instances
+	 */
+	@Nonnull
+	public <T> List<T> findAll(@Nonnull Class<T> clazz, @Nonnull Collection<? extends Serializable> ids) {
+		List<T> list = Lists.newArrayListWithCapacity(ids.size());
+		for (Serializable id : ids) {
+			T obj = find(clazz, id);
+			if (obj != null) {
+				list.add(obj);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the given query result if its elements can be retrieved one by one.<br/>
+	 * The default implementation supports {@link Iterator Iterators} only. Subclasses may additionally support
+	 * provider specific cursors, which are closed once all elements are retrieved.
+	 *
+	 * @param result the query result
+	 * @return the iterator or {@code null} if the result is not a stream of objects
+	 */
+	@Nullable
+	public Iterator<?> iterate(@Nullable Object result) {
+		return result instanceof Iterator ? (Iterator<?>) result : null;
+	}
+
+	/**
+	 * Removes the given entity from the current persistence context i.e., it becomes detached.
+	 * <p/>
+	 * Note that changes made to the entity, which are not flushed yet, are not synchronized with the database.
+	 *
+	 * @param obj the entity to evict
+	 */
+	public abstract void evict(@Nonnull Object obj);
+
+	/**
+	 * Clears the current persistence context i.e., all managed entities become detached.
+	 * <p/>
+	 * Note that changes, which are not flushed yet, are discarded.
+	 */
+	public abstract void clear();
+
+	/**
+	 * Returns the types of all entities known to the persistence unit.
+	 * <p/>
+	 * If no persistence unit is available, an empty collection is returned.
+	 *
+	 * @return the entity types
+	 */
+	@Nonnull
+	public abstract Collection<Class<?>> getEntityClasses();
+
+	/**
+	 * Writes the metadata of all entities known to the persistence unit as an index, which can be packaged with the
+	 * application in order to skip resolving the metadata at runtime.
+	 *
+	 * @param writer the writer to use
+	 * @throws IOException if an I/O error occurs
+	 * @see IndexedMetadataResolver
+	 */
+	public void writeMetadataIndex(@Nonnull Writer writer) throws IOException {
+		List<ObjectMetadata> metadata = Lists.newArrayList();
+		for (Class<?> type : getEntityClasses()) {
+			metadata.add(getObjectMetadata(type));
+		}
+		IndexedMetadataResolver.write(metadata, writer);
+	}
+
 	/**
 	 * Force the current persistence context to flush.
 	 * <p/>
@@ -16,27 +16,76 @@
 package at.dormancy.util;
 
 import at.dormancy.metadata.ObjectMetadata;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides the context e.g., the metadata of the entities.
+ * <p/>
+ * A context is meant to be used by a single thread for a single operation at a time. After an operation completed,
+ * the context can be {@link #reset() reset} and reused for another operation. In contrast to creating a new context,
+ * the memory allocated by the adjacency map is retained.<br/>
+ * Only {@link #isConcurrent() concurrent} contexts can be shared by multiple threads e.g., for disconnecting the
+ * elements of a collection in parallel.
  *
  * @author Gregor Schauer
  * @since 2.0.0
  */
 public class DormancyContext {
-	final Map<Class<?>, ObjectMetadata> metadataMap = new ConcurrentHashMap<Class<?>, ObjectMetadata>();
-	final Map<Object, Object> adjacencyMap = new IdentityHashMap<Object, Object>();
+	final Map<Class<?>, ObjectMetadata> metadataMap;
+	final Map<Object, Object> adjacencyMap;
+	final Map<Object, Object> pendingObjects;
+	final boolean concurrent;
+	Table<Class<?>, Serializable, Object> persistentObjects;
 
 	public DormancyContext() {
+		metadataMap = Collections.emptyMap();
+		adjacencyMap = new IdentityHashMap<Object, Object>();
+		pendingObjects = new IdentityHashMap<Object, Object>();
+		concurrent = false;
+	}
+
+	/**
+	 * Creates a context for an object graph consisting of (approximately) the given number of objects.
+	 *
+	 * @param expectedSize the expected number of objects to visit
+	 */
+	public DormancyContext(int expectedSize) {
+		this(expectedSize, false);
+	}
+
+	/**
+	 * Creates a context for an object graph consisting of (approximately) the given number of objects.<br/>
+	 * A concurrent context uses a synchronized adjacency map, which compares its keys by identity as well. Its keys
+	 * are referenced strongly so that visited objects are never forgotten while traversing cyclic object graphs.
+	 *
+	 * @param expectedSize the expected number of objects to visit
+	 * @param concurrent   {@code true} if the context is shared by multiple threads, {@code false} otherwise
+	 */
+	public DormancyContext(int expectedSize, boolean concurrent) {
+		metadataMap = Collections.emptyMap();
+		adjacencyMap = concurrent
+				? Collections.synchronizedMap(new IdentityHashMap<Object, Object>(expectedSize))
+				: new IdentityHashMap<Object, Object>(expectedSize);
+		pendingObjects = concurrent
+				? Collections.synchronizedMap(new IdentityHashMap<Object, Object>())
+				: new IdentityHashMap<Object, Object>();
+		this.concurrent = concurrent;
 	}
 
 	public DormancyContext(@Nullable ObjectMetadata... metadata) {
+		metadataMap = Maps.newHashMapWithExpectedSize(metadata != null ? metadata.length : 0);
+		adjacencyMap = new IdentityHashMap<Object, Object>();
+		pendingObjects = new IdentityHashMap<Object, Object>();
+		concurrent = false;
 		if (metadata != null) {
 			for (ObjectMetadata m : metadata) {
 				metadataMap.put(m.getType(), m);
@@ -52,7 +101,7 @@ public class DormancyContext {
 	 */
 	@Nullable
 	public ObjectMetadata getObjectMetadata(@Nonnull Class<?> clazz) {
-		return metadataMap.get(clazz);
+		return metadataMap.isEmpty() ? null : metadataMap.get(clazz);
 	}
 
 	/**
@@ -64,4 +113,141 @@ public class DormancyContext {
 	public Map<Object, Object> getAdjacencyMap() {
 		return adjacencyMap;
 	}
+
+	/**
+	 * Associates the given transient object with the given persistent object unless the transient object has already
+	 * been visited.<br/>
+	 * For concurrent contexts, this is done atomically so that every object is processed only once.
+	 *
+	 * @param key   the object visited
+	 * @param value the counterpart of the object
+	 * @return the counterpart associated previously or {@code null} if the given one has been associated
+	 */
+	@Nullable
+	public Object putIfAbsent(@Nonnull Object key, @Nonnull Object value) {
+		if (concurrent) {
+			// The synchronized map uses itself as mutex
+			synchronized (adjacencyMap) {
+				return putIfAbsent(adjacencyMap, key, value);
+			}
+		}
+		return putIfAbsent(adjacencyMap, key, value);
+	}
+
+	/**
+	 * Associates the given transient object with the given persistent object unless the transient object has already
+	 * been visited and marks the latter as {@link #setPending(Object, Object) pending} at once.<br/>
+	 * For concurrent contexts, this is done atomically so that no other thread can retrieve the counterpart before it
+	 * is marked as pending.
+	 *
+	 * @param key   the object visited
+	 * @param value the counterpart of the object
+	 * @param owner the traversal that is going to process the properties of the counterpart
+	 * @return the counterpart associated previously or {@code null} if the given one has been associated
+	 */
+	@Nullable
+	public Object putIfAbsent(@Nonnull Object key, @Nonnull Object value, @Nonnull Object owner) {
+		if (concurrent) {
+			synchronized (adjacencyMap) {
+				return putPendingIfAbsent(key, value, owner);
+			}
+		}
+		return putPendingIfAbsent(key, value, owner);
+	}
+
+	@Nullable
+	private Object putPendingIfAbsent(@Nonnull Object key, @Nonnull Object value, @Nonnull Object owner) {
+		Object previous = putIfAbsent(adjacencyMap, key, value);
+		if (previous == null) {
+			pendingObjects.put(value, owner);
+		}
+		return previous;
+	}
+
+	@Nullable
+	private static Object putIfAbsent(@Nonnull Map<Object, Object> map, @Nonnull Object key, @Nonnull Object value) {
+		Object previous = map.get(key);
+		if (previous == null) {
+			map.put(key, value);
+		}
+		return previous;
+	}
+
+	/**
+	 * Marks the given object as pending i.e., it has been visited but its properties are not processed yet.<br/>
+	 * A pending object must not be hashed or compared because its state is incomplete.
+	 *
+	 * @param obj   the object visited
+	 * @param owner the traversal that is going to process the properties of the object
+	 */
+	public void setPending(@Nonnull Object obj, @Nonnull Object owner) {
+		pendingObjects.put(obj, owner);
+	}
+
+	/**
+	 * Returns the traversal that is going to process the properties of the given object.
+	 *
+	 * @param obj the object visited
+	 * @return the owner or {@code null} if the object is not pending
+	 * @see #setPending(Object, Object)
+	 */
+	@Nullable
+	public Object getPendingOwner(@Nonnull Object obj) {
+		return pendingObjects.get(obj);
+	}
+
+	/**
+	 * Marks the given object as processed completely.
+	 *
+	 * @param obj the object visited
+	 * @see #setPending(Object, Object)
+	 */
+	public void removePending(@Nonnull Object obj) {
+		pendingObjects.remove(obj);
+	}
+
+	/**
+	 * Returns whether this context can be shared by multiple threads.
+	 *
+	 * @return {@code true} if the context is thread-safe, {@code false} otherwise
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Returns the persistent objects that have already been retrieved indexed by their type and identifier.
+	 *
+	 * @return the retrieved persistent objects
+	 */
+	@Nonnull
+	public Table<Class<?>, Serializable, Object> getPersistentObjects() {
+		if (persistentObjects == null) {
+			persistentObjects = HashBasedTable.create();
+		}
+		return persistentObjects;
+	}
+
+	/**
+	 * Returns the persistent object of the given type with the given identifier if it has already been retrieved.
+	 *
+	 * @param clazz      the type of the object
+	 * @param identifier the identifier of the object
+	 * @return the persistent object or {@code null} if it has not been retrieved yet
+	 * @see #getPersistentObjects()
+	 */
+	@Nullable
+	public Object getPersistentObject(@Nonnull Class<?> clazz, @Nonnull Serializable identifier) {
+		return persistentObjects != null ? persistentObjects.get(clazz, identifier) : null;
+	}
+
+	/**
+	 * Discards the visited and retrieved objects so that the context can be reused for another operation.<br/>
+	 * The provided metadata are retained.
+	 */
+	public void reset() {
+		adjacencyMap.clear();
+		pendingObjects.clear();
+		persistentObjects = null;
+	}
 }
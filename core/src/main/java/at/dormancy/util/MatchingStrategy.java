@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.util;
+
+/**
+ * Specifies how objects of a certain type are matched with their pendants e.g., when merging collections.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ * @see AbstractDormancyUtils#getMatchingStrategy(Class)
+ */
+public enum MatchingStrategy {
+	/**
+	 * The type overrides {@link Object#equals(Object)} as well as {@link Object#hashCode()}.<br/>
+	 * Thus, objects can be looked up by hash-based data structures.
+	 */
+	EQUALS,
+	/**
+	 * The type overrides {@link Object#equals(Object)} but not {@link Object#hashCode()}.<br/>
+	 * Thus, objects have to be compared one by one.
+	 */
+	EQUALS_WITHOUT_HASH_CODE,
+	/**
+	 * The type is an entity that inherits {@link Object#equals(Object)}.<br/>
+	 * Objects are equal if their identifiers are equal.
+	 */
+	IDENTIFIER,
+	/**
+	 * The type neither overrides {@link Object#equals(Object)} nor is it an entity.<br/>
+	 * An object is only equal to itself.
+	 */
+	IDENTITY
+}
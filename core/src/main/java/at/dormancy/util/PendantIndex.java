@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.util;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Looks up the pendants of objects within a collection of candidates.
+ * <p/>
+ * An index is meant to be used for a single merge operation e.g., for matching all elements of a transient
+ * collection with the elements of a persistent collection. The candidates are indexed on-demand so that every lookup
+ * is performed in constant time. A candidate that has been returned by {@link #remove(Object)} is not considered for
+ * subsequent lookups.<br/>
+ * The semantics are the same as provided by {@link AbstractDormancyUtils#findPendant(Object, Collection)}. Depending
+ * on the {@link MatchingStrategy} of the object to look up, the candidates are indexed by their hash code, their
+ * identifier or their identity. Only objects using {@link MatchingStrategy#EQUALS_WITHOUT_HASH_CODE} require a
+ * linear scan.
+ *
+ * @param <PMD> the type of the persistence metadata to use
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class PendantIndex<PMD> {
+	protected final AbstractDormancyUtils<?, ?, PMD, ?> utils;
+	protected final List<Object> candidates;
+	protected final Set<Object> removed = Sets.newIdentityHashSet();
+	protected Map<Object, Deque<Object>> equalsIndex;
+	protected Map<Class<?>, Map<Serializable, Deque<Object>>> identifierIndex;
+	protected Set<Object> identityIndex;
+
+	public PendantIndex(@Nonnull AbstractDormancyUtils<?, ?, PMD, ?> utils, @Nonnull Collection<?> candidates) {
+		this.utils = utils;
+		// Copy the candidates in case that the collection is modified during the merge
+		this.candidates = new ArrayList<Object>(candidates);
+	}
+
+	/**
+	 * Looks up the candidate that is semantically equal to the given object and excludes it from further lookups.
+	 *
+	 * @param obj the object
+	 * @param <T> the type of the object
+	 * @return the candidate found or {@code null} if there is no such candidate
+	 * @see AbstractDormancyUtils#findPendant(Object, Collection)
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T remove(@Nonnull T obj) {
+		Class<?> clazz = utils.getClass(obj);
+		switch (utils.getMatchingStrategy(clazz)) {
+			case EQUALS:
+				return (T) poll(getEqualsIndex().get(obj));
+			case EQUALS_WITHOUT_HASH_CODE:
+				return (T) removeEqual(obj);
+			case IDENTIFIER:
+				PMD metadata = utils.getMetadata(clazz);
+				Serializable identifier = metadata != null ? utils.getIdentifier(metadata, obj) : null;
+				Map<Serializable, Deque<Object>> map = identifier != null ? getIdentifierIndex().get(clazz) : null;
+				return map != null ? (T) poll(map.get(identifier)) : null;
+			default:
+				return getIdentityIndex().contains(obj) && removed.add(obj) ? obj : null;
+		}
+	}
+
+	/**
+	 * Traverses the candidates looking for one that is equal to the given object.
+	 *
+	 * @param obj the object
+	 * @return the candidate found or {@code null} if there is no such candidate
+	 */
+	@Nullable
+	protected Object removeEqual(@Nonnull Object obj) {
+		for (Object candidate : candidates) {
+			if (!removed.contains(candidate) && obj.equals(candidate)) {
+				removed.add(candidate);
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first candidate of the given queue that has not been removed yet.
+	 *
+	 * @param queue the candidates to check (may be {@code null})
+	 * @return the candidate or {@code null} if there is no such candidate
+	 */
+	@Nullable
+	protected Object poll(@Nullable Deque<Object> queue) {
+		if (queue != null) {
+			for (Object candidate = queue.poll(); candidate != null; candidate = queue.poll()) {
+				if (removed.add(candidate)) {
+					return candidate;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the candidates grouped by their {@link Object#hashCode()} and {@link Object#equals(Object)} methods.
+	 *
+	 * @return the index
+	 */
+	@Nonnull
+	protected Map<Object, Deque<Object>> getEqualsIndex() {
+		if (equalsIndex == null) {
+			equalsIndex = Maps.newHashMapWithExpectedSize(candidates.size());
+			for (Object candidate : candidates) {
+				if (candidate != null && !removed.contains(candidate)) {
+					add(equalsIndex, candidate, candidate);
+				}
+			}
+		}
+		return equalsIndex;
+	}
+
+	/**
+	 * Returns the candidates grouped by their type and identifier.<br/>
+	 * Objects which are not entities or which do not have an identifier are not contained.
+	 *
+	 * @return the index
+	 */
+	@Nonnull
+	protected Map<Class<?>, Map<Serializable, Deque<Object>>> getIdentifierIndex() {
+		if (identifierIndex == null) {
+			identifierIndex = new HashMap<Class<?>, Map<Serializable, Deque<Object>>>();
+			for (Object candidate : candidates) {
+				if (candidate == null || removed.contains(candidate)) {
+					continue;
+				}
+				Class<?> clazz = utils.getClass(candidate);
+				PMD metadata = utils.getMetadata(clazz);
+				Serializable identifier = metadata != null ? utils.getIdentifier(metadata, candidate) : null;
+				if (identifier != null) {
+					Map<Serializable, Deque<Object>> map = identifierIndex.get(clazz);
+					if (map == null) {
+						map = new HashMap<Serializable, Deque<Object>>();
+						identifierIndex.put(clazz, map);
+					}
+					add(map, identifier, candidate);
+				}
+			}
+		}
+		return identifierIndex;
+	}
+
+	/**
+	 * Returns the candidates compared by their identity.
+	 *
+	 * @return the index
+	 */
+	@Nonnull
+	protected Set<Object> getIdentityIndex() {
+		if (identityIndex == null) {
+			identityIndex = Sets.newIdentityHashSet();
+			identityIndex.addAll(candidates);
+		}
+		return identityIndex;
+	}
+
+	private static <K> void add(@Nonnull Map<K, Deque<Object>> map, @Nonnull K key, @Nonnull Object candidate) {
+		Deque<Object> queue = map.get(key);
+		if (queue == null) {
+			queue = new ArrayDeque<Object>(1);
+			map.put(key, queue);
+		}
+		queue.add(candidate);
+	}
+}
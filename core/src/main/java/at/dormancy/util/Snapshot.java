@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.util;
+
+import at.dormancy.metadata.ObjectMetadata;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Records the property values of an entity at the time it was disconnected.
+ * <p/>
+ * The values are stored in the same order as the properties of the {@link ObjectMetadata} used for disconnecting the
+ * entity. Only values of immutable types (as well as {@link Date}s and {@link Calendar}s, which are copied) are
+ * recorded. All other values e.g., associations and collections, are not tracked and thus always considered to be
+ * changed.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class Snapshot {
+	static final Object UNTRACKED = new Object();
+	static final Set<Class<?>> IMMUTABLE_TYPES = ImmutableSet.<Class<?>>builder()
+			.addAll(Primitives.allWrapperTypes()).add(String.class, BigInteger.class, BigDecimal.class)
+			.add(Class.class, Currency.class, Locale.class, UUID.class)
+			.build();
+	protected final ObjectMetadata metadata;
+	protected final Object[] values;
+
+	public Snapshot(@Nonnull ObjectMetadata metadata, int size) {
+		this.metadata = metadata;
+		this.values = new Object[size];
+	}
+
+	/**
+	 * Records the value of the property with the given index.
+	 *
+	 * @param index the index of the property
+	 * @param value the value to record
+	 */
+	public void setValue(int index, @Nullable Object value) {
+		values[index] = copyOf(value);
+	}
+
+	/**
+	 * Returns whether the given value equals the recorded value of the property with the given index.
+	 *
+	 * @param index the index of the property
+	 * @param value the current value of the property
+	 * @return {@code true} if the value is tracked and did not change, {@code false} otherwise
+	 */
+	public boolean isUnchanged(int index, @Nullable Object value) {
+		return values[index] != UNTRACKED && Objects.equal(values[index], value);
+	}
+
+	/**
+	 * Returns the metadata used for recording the values.
+	 *
+	 * @return the metadata
+	 */
+	@Nonnull
+	public ObjectMetadata getMetadata() {
+		return metadata;
+	}
+
+	@Nullable
+	protected static Object copyOf(@Nullable Object value) {
+		if (value == null || value instanceof Enum || IMMUTABLE_TYPES.contains(value.getClass())) {
+			return value;
+		} else if (value instanceof Date) {
+			return ((Date) value).clone();
+		} else if (value instanceof Calendar) {
+			return ((Calendar) value).clone();
+		}
+		return UNTRACKED;
+	}
+}
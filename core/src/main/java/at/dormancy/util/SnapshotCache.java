@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link Snapshot}s of disconnected entities until their changes are applied.
+ * <p/>
+ * Snapshots are identified by the type, the identifier and the version of the entity. Thus, a snapshot is no longer
+ * found as soon as the version of the entity changes. The least recently used snapshots are evicted if the maximum
+ * size is exceeded.
+ * <p/>
+ * The snapshots of applied entities become valid only if the changes are committed. Thus, they are
+ * {@link #putAfterCommit(Class, Serializable, Object, Snapshot) published} after the current transaction commits.
+ *
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class SnapshotCache {
+	public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+	protected final Cache<List<Object>, Snapshot> cache;
+
+	public SnapshotCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	public SnapshotCache(long maximumSize) {
+		cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+	}
+
+	/**
+	 * Returns the snapshot of the given entity.
+	 *
+	 * @param clazz      the type of the entity
+	 * @param identifier the identifier of the entity
+	 * @param version    the version of the entity or {@code null} if it is not versioned
+	 * @return the snapshot or {@code null} if there is no such snapshot
+	 */
+	@Nullable
+	public Snapshot get(@Nonnull Class<?> clazz, @Nonnull Serializable identifier, @Nullable Object version) {
+		return cache.getIfPresent(createKey(clazz, identifier, version));
+	}
+
+	/**
+	 * Stores the snapshot of the given entity.
+	 *
+	 * @param clazz      the type of the entity
+	 * @param identifier the identifier of the entity
+	 * @param version    the version of the entity or {@code null} if it is not versioned
+	 * @param snapshot   the snapshot to store
+	 */
+	public void put(@Nonnull Class<?> clazz, @Nonnull Serializable identifier, @Nullable Object version,
+					@Nonnull Snapshot snapshot) {
+		cache.put(createKey(clazz, identifier, version), snapshot);
+	}
+
+	/**
+	 * Stores the snapshot of the given entity once the current transaction commits.<br/>
+	 * Until then, the snapshot stored previously (if any) is discarded. Thus, the changes of an entity are never
+	 * skipped if the transaction is rolled back. If there is no active transaction synchronization, the snapshot is
+	 * not stored at all.
+	 *
+	 * @param clazz      the type of the entity
+	 * @param identifier the identifier of the entity
+	 * @param version    the version of the entity or {@code null} if it is not versioned
+	 * @param snapshot   the snapshot to store
+	 * @see TransactionSynchronizationManager#isSynchronizationActive()
+	 */
+	public void putAfterCommit(@Nonnull Class<?> clazz, @Nonnull Serializable identifier, @Nullable Object version,
+							   @Nonnull Snapshot snapshot) {
+		List<Object> key = createKey(clazz, identifier, version);
+		cache.invalidate(key);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+
+		// Synchronizations of suspended transactions are not returned, hence every transaction has its own snapshots
+		PendingSnapshots pending = null;
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof PendingSnapshots && ((PendingSnapshots) synchronization).owner() == this) {
+				pending = (PendingSnapshots) synchronization;
+				break;
+			}
+		}
+		if (pending == null) {
+			pending = new PendingSnapshots();
+			TransactionSynchronizationManager.registerSynchronization(pending);
+		}
+		pending.snapshots.put(key, snapshot);
+	}
+
+	/**
+	 * Discards the snapshot of the given entity.
+	 *
+	 * @param clazz      the type of the entity
+	 * @param identifier the identifier of the entity
+	 * @param version    the version of the entity or {@code null} if it is not versioned
+	 */
+	public void invalidate(@Nonnull Class<?> clazz, @Nonnull Serializable identifier, @Nullable Object version) {
+		cache.invalidate(createKey(clazz, identifier, version));
+	}
+
+	/**
+	 * Discards all snapshots.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	@Nonnull
+	protected List<Object> createKey(@Nonnull Class<?> clazz, @Nonnull Serializable identifier,
+									 @Nullable Object version) {
+		return Arrays.<Object>asList(clazz, identifier, version);
+	}
+
+	/**
+	 * Holds the snapshots of the entities applied within a transaction until it commits.
+	 */
+	class PendingSnapshots extends TransactionSynchronizationAdapter {
+		final Map<List<Object>, Snapshot> snapshots = new LinkedHashMap<List<Object>, Snapshot>();
+
+		@Nonnull
+		SnapshotCache owner() {
+			return SnapshotCache.this;
+		}
+
+		@Override
+		public void afterCommit() {
+			cache.putAll(snapshots);
+		}
+	}
+}
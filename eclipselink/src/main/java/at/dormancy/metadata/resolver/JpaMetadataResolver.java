@@ -36,32 +36,38 @@ public class JpaMetadataResolver extends AnnotationMetadataResolver<EntityType<?
 		idAnnotations = new Class[]{javax.persistence.Id.class, javax.persistence.EmbeddedId.class};
 	}
 
+	@Nullable
 	@Override
-	protected void detectAccessType(@Nonnull Class<?> entityType, @Nullable EntityType<?> metadata) {
-		super.detectAccessType(entityType, metadata);
+	protected AccessType detectAccessType(@Nonnull Class<?> entityType, @Nullable EntityType<?> metadata) {
+		AccessType accessType = super.detectAccessType(entityType, metadata);
 
 		// If the entity type does not define a default access type, scan for methods annotated with an ID annotation
-		if (getDefaultAccessType() == null && metadata != null) {
+		if (accessType == null && metadata != null) {
 			if (metadata.hasSingleIdAttribute()) {
 				// If there is a single identifier, determine the access type
-				String identifierPropertyName = metadata.getId(metadata.getIdType().getJavaType()).getName();
-				Field field = findField(entityType, identifierPropertyName);
-				Annotation idAnnotation = getAnnotation(field, getIdAnnotations());
-				setDefaultAccessType(idAnnotation != null ? AccessType.FIELD : AccessType.PROPERTY);
+				// Derived identifiers have a different type than the ID type, thus they cannot be looked up by type
+				accessType = AccessType.PROPERTY;
+				for (SingularAttribute<?, ?> attribute : metadata.getSingularAttributes()) {
+					if (attribute.isId()) {
+						Field field = findField(entityType, attribute.getName());
+						Annotation idAnnotation = getAnnotation(field, getIdAnnotations());
+						accessType = idAnnotation != null ? AccessType.FIELD : AccessType.PROPERTY;
+						break;
+					}
+				}
 			} else {
 				// If there are multiple identifiers, check each of them instead
+				accessType = AccessType.PROPERTY;
 				for (String ids : findIdentifierProperties(entityType, metadata)) {
 					Annotation idAnnotation = getAnnotation(findField(entityType, ids), getIdAnnotations());
 					if (idAnnotation != null) {
-						setDefaultAccessType(AccessType.FIELD);
+						accessType = AccessType.FIELD;
 						break;
 					}
 				}
-				if (getDefaultAccessType() == null) {
-					setDefaultAccessType(AccessType.PROPERTY);
-				}
 			}
 		}
+		return accessType;
 	}
 
 	@Nonnull
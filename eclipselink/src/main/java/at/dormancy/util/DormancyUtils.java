@@ -16,6 +16,7 @@
 package at.dormancy.util;
 
 import at.dormancy.metadata.ObjectMetadata;
+import at.dormancy.metadata.resolver.IndexedMetadataResolver;
 import at.dormancy.metadata.resolver.JpaMetadataResolver;
 import at.dormancy.metadata.resolver.MetadataResolver;
 import at.dormancy.persistence.JpaPersistenceUnitProvider;
@@ -25,6 +26,7 @@ import org.eclipse.persistence.indirection.ValueHolder;
 import org.eclipse.persistence.internal.jpa.metamodel.EntityTypeImpl;
 import org.eclipse.persistence.internal.jpa.metamodel.ManagedTypeImpl;
 import org.eclipse.persistence.internal.jpa.metamodel.SingularAttributeImpl;
+import org.eclipse.persistence.internal.weaving.PersistenceWeaved;
 import org.springframework.beans.BeanUtils;
 
 import javax.annotation.Nonnull;
@@ -33,13 +35,20 @@ import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.FlushModeType;
 import javax.persistence.OptimisticLockException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import static com.google.common.collect.Iterables.getFirst;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
@@ -54,7 +63,7 @@ import static org.springframework.util.ReflectionUtils.*;
 public class DormancyUtils extends AbstractDormancyUtils
 		<EntityManagerFactory, EntityManager, EntityType<?>, JpaPersistenceUnitProvider> {
 
-	MetadataResolver metadataResolver = new JpaMetadataResolver(this);
+	MetadataResolver metadataResolver = new IndexedMetadataResolver(new JpaMetadataResolver(this));
 	Exceptions exceptions = new Exceptions();
 
 	@Inject
@@ -142,11 +151,49 @@ public class DormancyUtils extends AbstractDormancyUtils
 		return getPersistenceContext().find(clazz, id);
 	}
 
+	@Nonnull
+	@Override
+	public <T> List<T> findAll(@Nonnull Class<T> clazz, @Nonnull Collection<? extends Serializable> ids) {
+		EntityType<?> metadata = getMetadata(clazz);
+		if (ids.size() < 2 || metadata == null || !metadata.hasSingleIdAttribute()) {
+			return super.findAll(clazz, ids);
+		}
+		EntityManager entityManager = getPersistenceContext();
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<T> query = builder.createQuery(clazz);
+		Root<T> root = query.from(clazz);
+		query.where(root.get(metadata.getId(metadata.getIdType().getJavaType()).getName()).in(ids));
+		// Do not flush the persistence context just like EntityManager.find() does
+		return entityManager.createQuery(query).setFlushMode(FlushModeType.COMMIT).getResultList();
+	}
+
 	@Override
 	public void flush() {
 		getPersistenceContext().flush();
 	}
 
+	@Override
+	public void evict(@Nonnull Object obj) {
+		getPersistenceContext().detach(obj);
+	}
+
+	@Override
+	public void clear() {
+		getPersistenceContext().clear();
+	}
+
+	@Nonnull
+	@Override
+	public Collection<Class<?>> getEntityClasses() {
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		if (persistenceUnitProvider != null) {
+			for (EntityType<?> entityType : persistenceUnitProvider.getPersistenceUnit().getMetamodel().getEntities()) {
+				types.add(entityType.getJavaType());
+			}
+		}
+		return types;
+	}
+
 	@Nonnull
 	@Override
 	@SuppressWarnings("unchecked")
@@ -164,6 +211,15 @@ public class DormancyUtils extends AbstractDormancyUtils
 				: !(obj instanceof IndirectCollection) || ((IndirectCollection) obj).isInstantiated();
 	}
 
+	/**
+	 * Woven entities are never considered to be proxies because EclipseLink modifies the entity classes instead of
+	 * creating subclasses.
+	 */
+	@Override
+	public boolean isProxy(@Nonnull Class<?> clazz) {
+		return !PersistenceWeaved.class.isAssignableFrom(clazz) && super.isProxy(clazz);
+	}
+
 	@Override
 	public boolean isPersistentCollection(@Nullable Object obj) {
 		return obj instanceof IndirectCollection;
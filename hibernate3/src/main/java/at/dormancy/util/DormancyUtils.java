@@ -17,16 +17,24 @@ package at.dormancy.util;
 
 import at.dormancy.metadata.ObjectMetadata;
 import at.dormancy.metadata.resolver.HibernateMetadataResolver;
+import at.dormancy.metadata.resolver.IndexedMetadataResolver;
 import at.dormancy.metadata.resolver.MetadataResolver;
 import at.dormancy.persistence.HibernatePersistenceUnitProvider;
+import com.google.common.collect.AbstractIterator;
 import org.hibernate.*;
 import org.hibernate.collection.PersistentCollection;
+import org.hibernate.criterion.Restrictions;
 import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.proxy.HibernateProxy;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.springframework.util.ObjectUtils.identityToString;
 
@@ -38,7 +46,7 @@ import static org.springframework.util.ObjectUtils.identityToString;
 public class DormancyUtils extends AbstractDormancyUtils
 		<SessionFactory, Session, ClassMetadata, HibernatePersistenceUnitProvider> {
 
-	MetadataResolver metadataResolver = new HibernateMetadataResolver(this);
+	MetadataResolver metadataResolver = new IndexedMetadataResolver(new HibernateMetadataResolver(this));
 	Exceptions exceptions = new Exceptions();
 
 	@Inject
@@ -90,11 +98,77 @@ public class DormancyUtils extends AbstractDormancyUtils
 		return (T) getPersistenceContext().get(clazz, id);
 	}
 
+	@Nonnull
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> List<T> findAll(@Nonnull Class<T> clazz, @Nonnull Collection<? extends Serializable> ids) {
+		ClassMetadata metadata = getMetadata(clazz);
+		if (ids.size() < 2 || metadata == null || metadata.getIdentifierPropertyName() == null
+				|| metadata.getIdentifierType().isComponentType()) {
+			return super.findAll(clazz, ids);
+		}
+		// Do not flush the persistence context just like Session.get() does
+		return getPersistenceContext().createCriteria(clazz)
+				.add(Restrictions.in(metadata.getIdentifierPropertyName(), ids))
+				.setFlushMode(FlushMode.MANUAL)
+				.list();
+	}
+
 	@Override
 	public void flush() {
 		getPersistenceContext().flush();
 	}
 
+	@Override
+	public void evict(@Nonnull Object obj) {
+		getPersistenceContext().evict(obj);
+	}
+
+	@Override
+	public void clear() {
+		getPersistenceContext().clear();
+	}
+
+	@Nonnull
+	@Override
+	public Collection<Class<?>> getEntityClasses() {
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		if (persistenceUnitProvider != null) {
+			for (Object metadata : persistenceUnitProvider.getPersistenceUnit().getAllClassMetadata().values()) {
+				Class<?> type = ((ClassMetadata) metadata).getMappedClass(EntityMode.POJO);
+				if (type != null) {
+					types.add(type);
+				}
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Supports {@link ScrollableResults} in addition to {@link Iterator Iterators}.<br/>
+	 * Rows consisting of a single column are returned as they are whereas other rows are returned as arrays.
+	 * The results are closed once the last row was retrieved.
+	 */
+	@Nullable
+	@Override
+	public Iterator<?> iterate(@Nullable Object result) {
+		if (!(result instanceof ScrollableResults)) {
+			return super.iterate(result);
+		}
+		final ScrollableResults results = (ScrollableResults) result;
+		return new AbstractIterator<Object>() {
+			@Override
+			protected Object computeNext() {
+				if (!results.next()) {
+					results.close();
+					return endOfData();
+				}
+				Object[] row = results.get();
+				return row.length == 1 ? row[0] : row;
+			}
+		};
+	}
+
 	@Nonnull
 	@Override
 	@SuppressWarnings("unchecked")
@@ -110,6 +184,15 @@ public class DormancyUtils extends AbstractDormancyUtils
 		return Hibernate.isInitialized(obj);
 	}
 
+	/**
+	 * In addition to the naming conventions, every {@link HibernateProxy} is recognized regardless of the bytecode
+	 * provider used to generate it.
+	 */
+	@Override
+	public boolean isProxy(@Nonnull Class<?> clazz) {
+		return HibernateProxy.class.isAssignableFrom(clazz) || super.isProxy(clazz);
+	}
+
 	@Override
 	public boolean isPersistentCollection(@Nullable Object obj) {
 		return obj instanceof PersistentCollection;
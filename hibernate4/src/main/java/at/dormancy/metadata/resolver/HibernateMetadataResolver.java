@@ -55,32 +55,32 @@ public class HibernateMetadataResolver extends AnnotationMetadataResolver<ClassM
 		idAnnotations = new Class[]{javax.persistence.Id.class, javax.persistence.EmbeddedId.class};
 	}
 
+	@Nullable
 	@Override
-	protected void detectAccessType(@Nonnull Class<?> entityType, @Nullable ClassMetadata metadata) {
-		super.detectAccessType(entityType, metadata);
+	protected AccessType detectAccessType(@Nonnull Class<?> entityType, @Nullable ClassMetadata metadata) {
+		AccessType accessType = super.detectAccessType(entityType, metadata);
 
 		// If the entity type does not define a default access type, scan for methods annotated with an ID annotation
-		if (getDefaultAccessType() == null && metadata != null) {
+		if (accessType == null && metadata != null) {
 			String identifierPropertyName = metadata.getIdentifierPropertyName();
 			if (identifierPropertyName != null) {
 				// If there is a single identifier, determine the access type
 				Field field = findField(entityType, identifierPropertyName);
 				Annotation idAnnotation = getAnnotation(field, getIdAnnotations());
-				setDefaultAccessType(idAnnotation != null ? AccessType.FIELD : AccessType.PROPERTY);
+				accessType = idAnnotation != null ? AccessType.FIELD : AccessType.PROPERTY;
 			} else {
 				// If there are multiple identifiers, check each of them instead
+				accessType = AccessType.PROPERTY;
 				for (String ids : findIdentifierProperties(entityType, metadata)) {
 					Annotation idAnnotation = getAnnotation(findField(entityType, ids), getIdAnnotations());
 					if (idAnnotation != null) {
-						setDefaultAccessType(AccessType.FIELD);
+						accessType = AccessType.FIELD;
 						break;
 					}
 				}
-				if (getDefaultAccessType() == null) {
-					setDefaultAccessType(AccessType.PROPERTY);
-				}
 			}
 		}
+		return accessType;
 	}
 
 	@Nonnull
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.access;
+
+import at.dormancy.AbstractDormancyTest;
+import at.dormancy.entity.Application;
+import at.dormancy.entity.DataTypes;
+import at.dormancy.entity.UnsupportedWriteEntity;
+import at.dormancy.entity.WriteOnlyEntity;
+import at.dormancy.metadata.ObjectMetadata;
+import org.junit.Test;
+import org.springframework.beans.InvalidPropertyException;
+import org.springframework.beans.MethodInvocationException;
+import org.springframework.beans.TypeMismatchException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class CopyPlanTest extends AbstractDormancyTest {
+	@Test
+	public void testApplication() {
+		Application application = new Application();
+		ObjectMetadata metadata = dormancy.getUtils().getObjectMetadata(Application.class);
+		CopyPlan plan = dormancy.getUtils().getCopyPlan(Application.class, metadata);
+		assertSame(plan, dormancy.getUtils().getCopyPlan(Application.class, metadata));
+		assertEquals(metadata.getProperties().size(), plan.size());
+
+		int i = 0;
+		for (String propertyName : metadata.getProperties()) {
+			PropertyHandle handle = plan.getHandle(i++);
+			assertEquals(propertyName, handle.getName());
+			assertSame(handle, plan.getHandle(propertyName));
+			assertEquals(metadata.getAccessType(propertyName) == AccessType.FIELD
+					? FieldPropertyHandle.class : FastMethodPropertyHandle.class, handle.getClass());
+		}
+
+		plan.getHandle("id").setValue(application, 1L);
+		plan.getHandle("name").setValue(application, "app");
+		assertEquals(1L, plan.getHandle("id").getValue(application));
+		assertEquals("app", plan.getHandle("name").getValue(application));
+		assertEquals("app", application.getName());
+	}
+
+	@Test
+	public void testLeaves() {
+		ObjectMetadata metadata = dormancy.getUtils().getObjectMetadata(DataTypes.class);
+		CopyPlan plan = dormancy.getUtils().getCopyPlan(DataTypes.class, metadata);
+		List<String> leaves = Arrays.asList("id", "longWrapper", "longValue", "booleanWrapper", "booleanValue",
+				"string", "accessType");
+		for (int i = 0; i < plan.size(); i++) {
+			String propertyName = plan.getHandle(i).getName();
+			assertEquals(propertyName, leaves.contains(propertyName), plan.isLeaf(i));
+		}
+	}
+
+	@Test
+	public void testCustomMetadata() {
+		ObjectMetadata metadata = dormancy.getUtils().getObjectMetadata(Application.class).withoutProperty("name");
+		CopyPlan plan = dormancy.getUtils().getCopyPlan(Application.class, metadata);
+		assertSame(plan, dormancy.getUtils().getCopyPlan(Application.class, metadata));
+		// Equal metadata share the same plan
+		assertSame(plan, dormancy.getUtils().getCopyPlan(Application.class,
+				dormancy.getUtils().getObjectMetadata(Application.class).withoutProperty("name")));
+		assertNotSame(plan, dormancy.getUtils().getCopyPlan(Application.class,
+				dormancy.getUtils().getObjectMetadata(Application.class).withoutProperty("id")));
+		try {
+			plan.getHandle("name");
+			fail(IllegalArgumentException.class.getSimpleName() + " expected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = TypeMismatchException.class)
+	public void testTypeMismatch() {
+		Application application = new Application();
+		CopyPlan plan = dormancy.getUtils().getCopyPlan(Application.class,
+				dormancy.getUtils().getObjectMetadata(Application.class));
+		plan.getHandle("name").setValue(application, 1L);
+	}
+
+	@Test(expected = MethodInvocationException.class)
+	public void testReadOnlyEntity() {
+		Object entity = new UnsupportedWriteEntity(1L, "val");
+		ObjectMetadata metadata = dormancy.getUtils().getObjectMetadata(entity.getClass());
+		CopyPlan plan = dormancy.getUtils().getCopyPlan(entity.getClass(), metadata);
+		assertEquals("val", plan.getHandle("value").getValue(entity));
+		plan.getHandle("value").setValue(entity, "value");
+	}
+
+	@Test(expected = InvalidPropertyException.class)
+	public void testWriteOnlyEntity() {
+		Object entity = new WriteOnlyEntity(1L, 0L);
+		ObjectMetadata metadata = dormancy.getUtils().getObjectMetadata(entity.getClass());
+		CopyPlan plan = dormancy.getUtils().getCopyPlan(entity.getClass(), metadata);
+		PropertyHandle handle = plan.getHandle("time");
+		assertSame(AccessorPropertyHandle.class, handle.getClass());
+		handle.getValue(entity);
+	}
+}
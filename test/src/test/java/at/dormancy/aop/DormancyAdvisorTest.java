@@ -19,6 +19,7 @@ import at.dormancy.Dormancy;
 import at.dormancy.DormancySpringConfig;
 import at.dormancy.entity.Book;
 import at.dormancy.handler.ObjectHandler;
+import at.dormancy.service.GenericService;
 import at.dormancy.service.Service;
 import at.dormancy.util.ClassLookup;
 import org.apache.commons.lang.ArrayUtils;
@@ -29,6 +30,8 @@ import org.aspectj.lang.annotation.Aspect;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.aop.Pointcut;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.*;
 import org.springframework.core.Ordered;
@@ -39,11 +42,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import java.io.Serializable;
 import java.lang.reflect.Method;
-import java.util.UUID;
+import java.util.*;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 /**
  * @author Gregor Schauer
@@ -54,6 +57,8 @@ public class DormancyAdvisorTest {
 	@Inject
 	Service service;
 	@Inject
+	GenericService genericService;
+	@Inject
 	DormancyAdvisor dormancyAdvisor;
 
 	@Test
@@ -64,6 +69,25 @@ public class DormancyAdvisorTest {
 		assertNotNull(service.get(Book.class, refBook.getId()));
 	}
 
+	@Test
+	@Transactional
+	public void testObjectResult() {
+		Book refBook = new Book(UUID.randomUUID().toString());
+		dormancyAdvisor.dormancy.getUtils().persist(refBook);
+
+		// Results of endpoints declared to return Object keep their type
+		ProxyFactory proxyFactory = new ProxyFactory(genericService);
+		proxyFactory.addAdvice(dormancyAdvisor);
+		Object result = ((GenericService) proxyFactory.getProxy()).scroll(Book.class);
+		boolean scrollable = AopUtils.getTargetClass(genericService).getName().equals(
+				"at.dormancy.service.HibernateServiceImpl");
+		assertEquals(!scrollable, result instanceof Iterator);
+		if (result instanceof Iterator) {
+			Book book = (Book) ((Iterator<?>) result).next();
+			assertEquals(refBook.getTitle(), book.getTitle());
+		}
+	}
+
 	@Test(expected = UnsupportedOperationException.class)
 	@Transactional
 	public void testException() {
@@ -87,6 +111,28 @@ public class DormancyAdvisorTest {
 		assertEquals(false, pointcut.getMethodMatcher().matches(method, serviceImpl));
 	}
 
+	@Test
+	public void testPlan() throws Exception {
+		DormancyAdvisor.EndpointPlan plan = dormancyAdvisor.getPlan(Service.class.getMethod("doNothing"));
+		assertEquals(0, plan.parameters.length);
+		assertEquals(false, plan.result);
+
+		plan = dormancyAdvisor.getPlan(Service.class.getMethod("get", Class.class, Long.class));
+		assertEquals(0, plan.parameters.length);
+		assertEquals(true, plan.result);
+		assertSame(plan, dormancyAdvisor.getPlan(Service.class.getMethod("get", Class.class, Long.class)));
+
+		plan = dormancyAdvisor.getPlan(Endpoint.class.getMethod("find", String.class, int.class, List.class, Map.class,
+				Long[].class, Collection.class, Set.class, Serializable.class));
+		assertArrayEquals(new int[]{3, 6, 7}, plan.parameters);
+		assertEquals(true, plan.result);
+		assertEquals(true, plan.lazy);
+
+		plan = dormancyAdvisor.getPlan(Endpoint.class.getMethod("count", List.class));
+		assertArrayEquals(new int[]{0}, plan.parameters);
+		assertEquals(false, plan.result);
+	}
+
 	@Test
 	public void testOrder() {
 		assertEquals(Ordered.LOWEST_PRECEDENCE, dormancyAdvisor.getOrder());
@@ -94,6 +140,13 @@ public class DormancyAdvisorTest {
 		assertEquals(Ordered.HIGHEST_PRECEDENCE, dormancyAdvisor.getOrder());
 	}
 
+	interface Endpoint {
+		<T extends Serializable, E extends Enum<E>> Iterator<T> find(String name, int limit, List<String> names,
+				Map<String, Book> books, Long[] ids, Collection<? extends E> states, Set<? super Long> keys, T example);
+
+		Map<String, Long> count(List<?> books);
+	}
+
 	@Configuration
 	@Import(DormancySpringConfig.class)
 	@EnableTransactionManagement(proxyTargetClass = true)
@@ -16,6 +16,7 @@
 package at.dormancy.handler;
 
 import at.dormancy.entity.CollectionEntity;
+import at.dormancy.entity.Employee;
 import at.dormancy.util.DormancyContext;
 import org.junit.After;
 import org.junit.Before;
@@ -72,4 +73,55 @@ public class ArrayHandlerTest extends AbstractObjectHandlerTest<ArrayHandler<Obj
 		assertEquals(false, isManaged(disconnected[2], persistenceUnitProvider));
 		assertEquals(true, isManaged(merged[2], persistenceUnitProvider));
 	}
+
+	@Test
+	public void testPrimitives() {
+		int[] array = {1, 2, 3};
+		int[] disconnected = handler.disconnect(array, new DormancyContext());
+		assertNotSame(array, disconnected);
+		assertArrayEquals(array, disconnected);
+
+		assertSame(array, handler.apply(disconnected, array, new DormancyContext()));
+
+		disconnected = new int[]{1, 2, 3, 4};
+		int[] merged = handler.apply(disconnected, array, new DormancyContext());
+		assertNotSame(disconnected, merged);
+		assertArrayEquals(disconnected, merged);
+	}
+
+	@Test
+	public void testLeaves() {
+		String[] array = {"a", "b"};
+		String[] disconnected = handler.disconnect(array, new DormancyContext());
+		assertNotSame(array, disconnected);
+		assertArrayEquals(array, disconnected);
+
+		disconnected[1] = "c";
+		String[] merged = handler.apply(disconnected, array, new DormancyContext());
+		assertNotSame(disconnected, merged);
+		assertArrayEquals(disconnected, merged);
+	}
+
+	@Test
+	public void testSharedElement() {
+		Employee tr = dormancy.disconnect(genericService.get(Employee.class, refBoss.getId()));
+		assertEquals(false, isManaged(tr, persistenceUnitProvider));
+
+		// The nested array is merged before the shared element is processed completely
+		Object[] merged = handler.apply(new Object[]{tr, new Object[]{tr}}, null, new DormancyContext());
+		assertEquals(2, merged.length);
+		assertEquals(true, isManaged(merged[0], persistenceUnitProvider));
+		assertArrayEquals(new Object[]{merged[0]}, (Object[]) merged[1]);
+	}
+
+	@Test
+	public void testLength() {
+		Object[] array = {0};
+		Object[] merged = handler.apply(new Object[]{0, "", 1L}, array, new DormancyContext());
+		assertArrayEquals(new Object[]{0, "", 1L}, merged);
+		assertEquals(Object.class, merged.getClass().getComponentType());
+
+		merged = handler.apply(new Object[0], array, new DormancyContext());
+		assertEquals(0, merged.length);
+	}
 }
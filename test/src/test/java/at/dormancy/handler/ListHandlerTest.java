@@ -24,6 +24,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -85,4 +86,89 @@ public class ListHandlerTest extends AbstractObjectHandlerTest<CollectionHandler
 		assertEquals(true, AbstractDormancyTest.isManaged(merged, persistenceUnitProvider));
 		assertEquals(false, AbstractDormancyTest.isManaged(merged.get(0), persistenceUnitProvider));
 	}
+
+	@Test
+	public void testMerge() {
+		final List<String> modifications = new ArrayList<String>();
+		List<String> dbObj = new ArrayList<String>(Arrays.asList("a", "b", "c", "d")) {
+			@Override
+			public boolean add(String s) {
+				modifications.add("add " + s);
+				return super.add(s);
+			}
+
+			@Override
+			public void add(int index, String s) {
+				modifications.add("add " + index + " " + s);
+				super.add(index, s);
+			}
+
+			@Override
+			public void clear() {
+				modifications.add("clear");
+				super.clear();
+			}
+		};
+
+		List<String> unchanged = new ArrayList<String>(dbObj);
+		assertSame(dbObj, handler.apply(unchanged, dbObj, new DormancyContext()));
+		assertEquals(unchanged, dbObj);
+		assertEquals(Collections.<String>emptyList(), modifications);
+
+		List<String> changed = Arrays.asList("a", "x", new String("c"), "d", "e");
+		assertSame(dbObj, handler.apply(changed, dbObj, new DormancyContext()));
+		assertEquals(changed, dbObj);
+		assertEquals(Arrays.asList("add 1 x", "add e"), modifications);
+	}
+
+	@Test
+	public void testMove() {
+		final List<String> modifications = new ArrayList<String>();
+		List<String> dbObj = new ArrayList<String>() {
+			@Override
+			public void add(int index, String s) {
+				modifications.add("add " + index + " " + s);
+				super.add(index, s);
+			}
+
+			@Override
+			public String remove(int index) {
+				modifications.add("remove " + index);
+				return super.remove(index);
+			}
+
+			@Override
+			public void clear() {
+				modifications.add("clear");
+				super.clear();
+			}
+		};
+		for (int i = 0; i < 2000; i++) {
+			dbObj.add(String.valueOf(i));
+		}
+
+		List<String> moved = new ArrayList<String>(dbObj);
+		moved.add(1000, moved.remove(10));
+		assertSame(dbObj, handler.apply(moved, dbObj, new DormancyContext()));
+		assertEquals(moved, dbObj);
+		assertEquals(Arrays.asList("remove 10", "add 1000 10"), modifications);
+
+		modifications.clear();
+		List<String> swapped = new ArrayList<String>(Arrays.asList("1", "0", "x", "1", "2"));
+		dbObj.clear();
+		dbObj.addAll(Arrays.asList("0", "1", "2", "1"));
+		modifications.clear();
+		assertSame(dbObj, handler.apply(swapped, dbObj, new DormancyContext()));
+		assertEquals(swapped, dbObj);
+		assertEquals(false, modifications.contains("clear"));
+	}
+
+	@Test
+	public void testLongestIncreasingSubsequence() {
+		int[] values = {3, 0, 4, 1, 2, 5};
+		boolean[] expected = {false, true, false, true, true, true};
+		assertEquals(Arrays.toString(expected),
+				Arrays.toString(CollectionHandler.longestIncreasingSubsequence(values, values.length)));
+		assertEquals(0, CollectionHandler.longestIncreasingSubsequence(new int[0], 0).length);
+	}
 }
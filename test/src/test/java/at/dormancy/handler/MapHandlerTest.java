@@ -20,11 +20,17 @@ import at.dormancy.entity.CollectionEntity;
 import at.dormancy.util.DormancyContext;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static at.dormancy.AbstractDormancyTest.isManaged;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author Gregor Schauer
@@ -67,4 +73,40 @@ public class MapHandlerTest extends AbstractObjectHandlerTest<MapHandler> {
 		a = genericService.get(CollectionEntity.class, refCollectionEntity.getId());
 		handler.apply(disconnected, a.getBookMap(), new DormancyContext());
 	}
+
+	@Test
+	public void testMerge() {
+		final List<String> modifications = new ArrayList<String>();
+		Map<String, Long> dbObj = new LinkedHashMap<String, Long>() {
+			@Override
+			public Long put(String key, Long value) {
+				modifications.add("put " + key);
+				return super.put(key, value);
+			}
+
+			@Override
+			public void clear() {
+				modifications.add("clear");
+				super.clear();
+			}
+		};
+		dbObj.put("a", 1L);
+		dbObj.put("b", 2L);
+		modifications.clear();
+
+		Map<String, Long> unchanged = new LinkedHashMap<String, Long>(dbObj);
+		assertSame(dbObj, handler.apply(unchanged, dbObj, new DormancyContext()));
+		assertEquals(unchanged, dbObj);
+		assertEquals(Collections.<String>emptyList(), modifications);
+
+		Map<String, Long> changed = new LinkedHashMap<String, Long>();
+		changed.put(new String("a"), 3L);
+		changed.put("c", 4L);
+		DormancyContext ctx = new DormancyContext();
+		assertSame(dbObj, handler.apply(changed, dbObj, ctx));
+		assertEquals(changed, dbObj);
+		assertEquals(Arrays.asList("put a", "put c"), modifications);
+		// Other references to the transient map resolve to the merged persistent map
+		assertSame(dbObj, handler.apply(changed, dbObj, ctx));
+	}
 }
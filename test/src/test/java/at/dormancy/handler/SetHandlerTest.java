@@ -19,7 +19,12 @@ import at.dormancy.entity.Employee;
 import at.dormancy.util.DormancyContext;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import static at.dormancy.AbstractDormancyTest.isManaged;
@@ -62,4 +67,36 @@ public class SetHandlerTest extends AbstractObjectHandlerTest<CollectionHandler<
 		Set merged = handler.apply(disconnected, a.getEmployees(), new DormancyContext());
 		assertEquals(true, isManaged(merged.iterator().next(), persistenceUnitProvider));
 	}
+
+	@Test
+	public void testMerge() {
+		final List<String> modifications = new ArrayList<String>();
+		Set<String> dbObj = new LinkedHashSet<String>() {
+			@Override
+			public boolean add(String s) {
+				modifications.add("add " + s);
+				return super.add(s);
+			}
+
+			@Override
+			public void clear() {
+				modifications.add("clear");
+				super.clear();
+			}
+		};
+		dbObj.addAll(Arrays.asList("a", "b", "c"));
+		String a = dbObj.iterator().next();
+		modifications.clear();
+
+		Set<String> unchanged = new LinkedHashSet<String>(Arrays.asList(new String("a"), new String("b"), "c"));
+		assertSame(dbObj, handler.apply(unchanged, dbObj, new DormancyContext()));
+		assertEquals(unchanged, dbObj);
+		assertEquals(Collections.<String>emptyList(), modifications);
+
+		Set<String> changed = new LinkedHashSet<String>(Arrays.asList(new String("a"), "c", "d"));
+		assertSame(dbObj, handler.apply(changed, dbObj, new DormancyContext()));
+		assertEquals(changed, dbObj);
+		assertSame(a, dbObj.iterator().next());
+		assertEquals(Collections.singletonList("add d"), modifications);
+	}
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.handler.registry;
+
+import at.dormancy.Dormancy;
+import at.dormancy.entity.Employee;
+import at.dormancy.handler.BasicTypeHandler;
+import at.dormancy.handler.CollectionHandler;
+import at.dormancy.handler.ObjectHandler;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.RandomAccess;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class ObjectHandlerRegistryTest {
+	ObjectHandlerRegistry registry = new Dormancy<Object, Object, Object>(null).getRegistry();
+
+	@Before
+	public void before() {
+		registry.addObjectHandler(CollectionHandler.class);
+	}
+
+	@Test
+	public void testNull() {
+		assertNull(registry.getObjectHandler(null));
+	}
+
+	@Test
+	public void testResolve() {
+		ObjectHandler<ArrayList> handler = registry.getObjectHandler(ArrayList.class);
+		assertTrue(handler instanceof CollectionHandler);
+		assertSame(handler, registry.getObjectHandler(ArrayList.class));
+		assertFalse(registry.handlerMap.containsKey(ArrayList.class));
+	}
+
+	@Test
+	public void testInvalidate() {
+		assertNull(registry.getObjectHandler(Employee.class));
+		assertNull(registry.getObjectHandler(Employee.class));
+
+		BasicTypeHandler<Employee> handler = new BasicTypeHandler<Employee>();
+		registry.addObjectHandler(handler, Employee.class);
+		assertSame(handler, registry.getObjectHandler(Employee.class));
+
+		registry.handlerMap.remove(Employee.class);
+		assertSame(handler, registry.getObjectHandler(Employee.class));
+		registry.invalidate();
+		assertNull(registry.getObjectHandler(Employee.class));
+	}
+
+	@Test
+	public void testMostSpecific() {
+		BasicTypeHandler<ArrayList> handler = new BasicTypeHandler<ArrayList>();
+		registry.addObjectHandler(handler, ArrayList.class);
+		registry.addObjectHandler(new PriorityHandler(), RandomAccess.class);
+
+		assertSame(handler, registry.getObjectHandler(ArrayList.class));
+		assertTrue(registry.getObjectHandler(LinkedList.class) instanceof CollectionHandler);
+	}
+
+	@Test
+	public void testPriority() {
+		PriorityHandler handler = new PriorityHandler();
+		registry.addObjectHandler(handler, RandomAccess.class);
+
+		assertSame(handler, registry.getObjectHandler(ArrayList.class));
+		assertTrue(registry.getObjectHandler(LinkedList.class) instanceof CollectionHandler);
+	}
+
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	static class PriorityHandler extends BasicTypeHandler<Object> {
+	}
+}
@@ -32,4 +32,17 @@ public class ObjectMetadataTest {
 		ObjectMetadata m5 = m4.withoutProperty("id");
 		assertSame(m4, m5);
 	}
+
+	@Test
+	public void testEquals() {
+		ObjectMetadata m0 = new ObjectMetadata(Book.class).withProperties(AccessType.FIELD, "id", "title");
+		ObjectMetadata m1 = new ObjectMetadata(Book.class).withProperties(AccessType.FIELD, "id", "title");
+		assertEquals(m0, m1);
+		assertEquals(m0.hashCode(), m1.hashCode());
+
+		// The order of the properties is significant
+		assertEquals(false, m0.equals(new ObjectMetadata(Book.class).withProperties(AccessType.FIELD, "title", "id")));
+		assertEquals(false, m0.equals(m0.withProperties(AccessType.PROPERTY, "id")));
+		assertEquals(false, m0.equals(new ObjectMetadata(Object.class).withProperties(AccessType.FIELD, "id", "title")));
+	}
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.metadata.resolver;
+
+import at.dormancy.AbstractDormancyTest;
+import at.dormancy.entity.Book;
+import at.dormancy.metadata.ObjectMetadata;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Properties;
+
+import static at.dormancy.access.AccessType.FIELD;
+import static at.dormancy.access.AccessType.PROPERTY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class IndexedMetadataResolverTest extends AbstractDormancyTest {
+	final MetadataResolver unsupported = new MetadataResolver() {
+		@Nonnull
+		@Override
+		public ObjectMetadata getMetadata(@Nonnull Class<?> clazz) {
+			throw new UnsupportedOperationException(clazz.getName());
+		}
+	};
+
+	@Test
+	public void testIndex() {
+		IndexedMetadataResolver resolver = new IndexedMetadataResolver(unsupported,
+				ImmutableMap.of(Book.class.getName(), "title:PROPERTY, id:FIELD,version"));
+		ObjectMetadata metadata = resolver.getMetadata(Book.class);
+		assertEquals(Lists.newArrayList("title", "id", "version"), metadata.getProperties().asList());
+		assertEquals(PROPERTY, metadata.getAccessType("title"));
+		assertEquals(FIELD, metadata.getAccessType("id"));
+		assertEquals(FIELD, metadata.getAccessType("version"));
+	}
+
+	@Test
+	public void testDelegate() {
+		IndexedMetadataResolver resolver = new IndexedMetadataResolver(new FieldMetadataResolver(),
+				ImmutableMap.<String, String>of());
+		assertEquals(FIELD, resolver.getMetadata(Book.class).getAccessType("title"));
+	}
+
+	@Test
+	public void testWrite() throws Exception {
+		StringWriter writer = new StringWriter();
+		dormancy.getUtils().writeMetadataIndex(writer);
+		Properties properties = new Properties();
+		properties.load(new StringReader(writer.toString()));
+		assertFalse(properties.isEmpty());
+
+		IndexedMetadataResolver resolver = new IndexedMetadataResolver(unsupported, Maps.fromProperties(properties));
+		for (Class<?> type : dormancy.getUtils().getEntityClasses()) {
+			ObjectMetadata expected = dormancy.getUtils().getObjectMetadata(type);
+			ObjectMetadata actual = resolver.getMetadata(type);
+			assertEquals(expected.getProperties().asList(), actual.getProperties().asList());
+			for (String property : expected.getProperties()) {
+				assertEquals(expected.getAccessType(property), actual.getAccessType(property));
+			}
+		}
+	}
+}
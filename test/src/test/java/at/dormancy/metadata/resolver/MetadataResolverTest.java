@@ -27,6 +27,12 @@ import org.junit.Test;
 import org.springframework.beans.BeanUtils;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static at.dormancy.access.AccessType.FIELD;
 import static at.dormancy.access.AccessType.PROPERTY;
@@ -64,6 +70,34 @@ public class MetadataResolverTest extends AbstractDormancyTest {
 		assertEquals(FIELD, metadata.getAccessType("value"));
 	}
 
+	@Test
+	public void testConcurrentResolution() throws Exception {
+		final MetadataResolver resolver = createMetadataResolver();
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executorService.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < 100; i++) {
+							if (resolver.getMetadata(Application.class).getAccessType("id") != PROPERTY
+									|| resolver.getMetadata(Book.class).getAccessType("id") != FIELD) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				assertEquals(true, future.get());
+			}
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private MetadataResolver createMetadataResolver() {
 		Class<MetadataResolver> clazz = ClassLookup.find(
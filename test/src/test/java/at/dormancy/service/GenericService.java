@@ -16,6 +16,7 @@
 package at.dormancy.service;
 
 import java.io.Serializable;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -24,6 +25,10 @@ import java.util.List;
 public interface GenericService extends Service {
 	<T extends Serializable> List<T> list(Class<T> type);
 
+	<T extends Serializable> Object scroll(Class<T> type);
+
+	<T extends Serializable> Iterator<T> iterate(Class<T> type);
+
 	<T extends Serializable> T singleResult(Class<T> type, String qlString, Object... args);
 
 	<T extends Serializable> List<T> list(Class<T> type, String qlString, Object... args);
@@ -28,6 +28,7 @@ import javax.inject.Inject;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -102,6 +103,16 @@ public class HibernateServiceImpl implements GenericService {
 		return sessionFactory.getCurrentSession().createCriteria(type).list();
 	}
 
+	@Override
+	public <T extends Serializable> Object scroll(Class<T> type) {
+		return sessionFactory.getCurrentSession().createCriteria(type).scroll(ScrollMode.FORWARD_ONLY);
+	}
+
+	@Override
+	public <T extends Serializable> Iterator<T> iterate(Class<T> type) {
+		return list(type).iterator();
+	}
+
 	@Override
 	public <T extends Serializable> T singleResult(Class<T> type, String qlString, Object... args) {
 		List<T> list = list(type, qlString, args);
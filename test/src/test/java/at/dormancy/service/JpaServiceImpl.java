@@ -33,6 +33,7 @@ import javax.persistence.criteria.Root;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -114,6 +115,16 @@ public class JpaServiceImpl implements GenericService {
 		return q.getResultList();
 	}
 
+	@Override
+	public <T extends Serializable> Object scroll(Class<T> type) {
+		return list(type).iterator();
+	}
+
+	@Override
+	public <T extends Serializable> Iterator<T> iterate(Class<T> type) {
+		return list(type).iterator();
+	}
+
 	@Override
 	public <T extends Serializable> T singleResult(Class<T> type, String qlString, Object... args) {
 		List<T> list = list(type, qlString, args);
@@ -21,11 +21,16 @@ import at.dormancy.container.Team;
 import at.dormancy.entity.Book;
 import at.dormancy.entity.Employee;
 import at.dormancy.handler.*;
+import at.dormancy.util.DormancyContext;
 import org.junit.Test;
 import org.springframework.beans.BeanInstantiationException;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -84,6 +89,56 @@ public class ContainerObjectHandlerDormancyTest extends AbstractDormancyTest {
 		assertEquals(false, isManaged(merged.getEmployees().get(0), persistenceUnitProvider));
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCustomObjectHandlerReadingNestedResult() {
+		Map<Class<?>, ObjectHandler<?>> handlerMap =
+				(Map<Class<?>, ObjectHandler<?>>) getField(dormancy.getRegistry(), "handlerMap");
+		Map<Class<?>, ObjectHandler<?>> registered = new HashMap<Class<?>, ObjectHandler<?>>(handlerMap);
+		dormancy.getConfig().setCloneObjects(true);
+		dormancy.getRegistry().addObjectHandler(new ObjectHandler<Team>() {
+			@Nullable
+			@Override
+			@SuppressWarnings("unchecked")
+			public <O extends Team> O createObject(@Nonnull O obj) {
+				return (O) new Team();
+			}
+
+			@Nullable
+			@Override
+			@SuppressWarnings("unchecked")
+			public <R extends Team, O extends R> R disconnect(O dbObj, @Nonnull DormancyContext ctx) {
+				// Copy the disconnected employees instead of keeping the returned list
+				List<Employee> employees = dormancy.asObjectHandler().disconnect(dbObj.getEmployees(), ctx);
+				R team = (R) createObject(dbObj);
+				team.setEmployees(new ArrayList<Employee>(employees));
+				return team;
+			}
+
+			@Nullable
+			@Override
+			@SuppressWarnings("unchecked")
+			public <O extends Team, R extends O> R apply(O trObj, R dbObj, @Nonnull DormancyContext ctx) {
+				return (R) trObj;
+			}
+		}, Team.class);
+
+		try {
+			// The employee is visited before the team but it is disconnected completely as soon as the team reads it
+			Employee a = genericService.get(Employee.class, refA.getId());
+			List<Object> disconnected = dormancy.disconnect(new ArrayList<Object>(Arrays.asList(a, new Team(a))));
+			Team team = (Team) disconnected.get(1);
+			assertEquals(1, team.getEmployees().size());
+			assertSame(disconnected.get(0), team.getEmployees().get(0));
+			assertEquals(a.getName(), team.getEmployees().get(0).getName());
+		} finally {
+			dormancy.getConfig().setCloneObjects(false);
+			handlerMap.clear();
+			handlerMap.putAll(registered);
+			dormancy.getRegistry().invalidate();
+		}
+	}
+
 	@Test
 	public void testContainerWithoutCustomObjectHandler() {
 		Book book = service.get(Book.class, refBook.getId());
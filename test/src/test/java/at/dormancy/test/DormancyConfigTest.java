@@ -16,18 +16,46 @@
 package at.dormancy.test;
 
 import at.dormancy.AbstractDormancyTest;
+import at.dormancy.Dormancy;
 import at.dormancy.DormancyConfiguration;
+import at.dormancy.aop.DormancyAdvisor;
 import at.dormancy.entity.Book;
 import at.dormancy.entity.Employee;
+import at.dormancy.metadata.ObjectMetadata;
+import at.dormancy.service.GenericService;
+import at.dormancy.util.DormancyContext;
 import org.apache.commons.beanutils.BeanUtils;
 import org.junit.After;
 import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Gregor Schauer
@@ -35,6 +63,8 @@ import static org.junit.Assert.assertEquals;
 @Transactional
 public class DormancyConfigTest extends AbstractDormancyTest {
 	DormancyConfiguration config;
+	@Inject
+	DormancyAdvisor dormancyAdvisor;
 
 	@After
 	public void after() {
@@ -113,4 +143,319 @@ public class DormancyConfigTest extends AbstractDormancyTest {
 		c = dormancy.disconnect(genericService.singleResult(Employee.class, qlString, refC.getId()));
 		assertEquals(a, c.getBoss());
 	}
+
+	@Test
+	public void testBatchSize() throws Exception {
+		List<Book> books = new ArrayList<Book>();
+		for (String title : Arrays.asList("1", "2", "3")) {
+			Book book = new Book(title);
+			persistenceContextHolder.save(book);
+			Book copy = (Book) BeanUtils.cloneBean(book);
+			copy.setTitle(title + "'");
+			books.add(copy);
+		}
+		books.add(books.get(0));
+
+		dormancy.getConfig().setBatchSize(2);
+		List<Book> merged = dormancy.apply(books);
+		assertEquals(books.size(), merged.size());
+		for (int i = 0; i < books.size(); i++) {
+			assertEquals(true, isManaged(merged.get(i), persistenceUnitProvider));
+			assertEquals(books.get(i).getTitle(), merged.get(i).getTitle());
+		}
+		assertSame(merged.get(0), merged.get(3));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testBatchSizeEntityNotFound() throws Exception {
+		Book copy = (Book) BeanUtils.cloneBean(refBook);
+		copy.setId(Long.MAX_VALUE);
+
+		dormancy.getConfig().setBatchSize(2);
+		dormancy.apply(Arrays.asList((Book) BeanUtils.cloneBean(refBook), copy));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testApplyAll() throws Exception {
+		List<Book> books = new ArrayList<Book>();
+		for (String title : Arrays.asList("1", "2")) {
+			Book book = new Book(title);
+			persistenceContextHolder.save(book);
+			Book copy = (Book) BeanUtils.cloneBean(book);
+			copy.setTitle(title + "'");
+			books.add(copy);
+		}
+
+		// The entities of all objects are retrieved at once and shared references are retained
+		dormancy.getConfig().setBatchSize(2);
+		Object[] args = {books.get(0), books, "text"};
+		DormancyContext ctx = new DormancyContext();
+		dormancy.applyAll(args, ctx);
+		assertEquals(2, ctx.getPersistentObjects().size());
+		assertEquals(true, isManaged(args[0], persistenceUnitProvider));
+		assertEquals("1'", ((Book) args[0]).getTitle());
+		assertSame(args[0], ((List<Book>) args[1]).get(0));
+		assertEquals("2'", ((List<Book>) args[1]).get(1).getTitle());
+		assertEquals("text", args[2]);
+	}
+
+	@Test
+	public void testTrackChanges() {
+		dormancy.getConfig().setCloneObjects(true);
+		dormancy.getConfig().setTrackChanges(true);
+
+		Book book = genericService.get(Book.class, refBook.getId());
+		Book disconnected = dormancy.disconnect(book);
+		book.setTitle("concurrent");
+
+		// Unchanged properties are not applied
+		dormancy.apply(disconnected);
+		assertEquals("concurrent", book.getTitle());
+
+		disconnected.setTitle("changed");
+		dormancy.apply(disconnected);
+		assertEquals("changed", book.getTitle());
+
+		// Changes resubmitted after a rollback are applied again
+		book.setTitle("rolled back");
+		dormancy.apply(disconnected);
+		assertEquals("changed", book.getTitle());
+
+		// Once committed, the applied state is the reference for subsequent changes
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCommit();
+		}
+		book.setTitle("concurrent");
+		dormancy.apply(disconnected);
+		assertEquals("concurrent", book.getTitle());
+
+		disconnected.setTitle("Book");
+		dormancy.apply(disconnected);
+		assertEquals("Book", book.getTitle());
+	}
+
+	@Test
+	public void testTrackChangesWithCustomMetadata() {
+		dormancy.getConfig().setCloneObjects(true);
+		dormancy.getConfig().setTrackChanges(true);
+
+		// The version is not part of the custom metadata but it is still required for tracking changes
+		ObjectMetadata metadata = dormancy.getUtils().getObjectMetadata(Employee.class).withoutProperty("version");
+		Employee employee = genericService.get(Employee.class, refA.getId());
+		Employee disconnected = dormancy.asObjectHandler().disconnect(employee, new DormancyContext(metadata));
+		assertEquals(employee.getName(), disconnected.getName());
+		assertEquals(null, disconnected.getVersion());
+		disconnected.setVersion(employee.getVersion());
+
+		disconnected.setName("changed");
+		dormancy.asObjectHandler().apply(disconnected, employee, new DormancyContext(metadata));
+		assertEquals("changed", employee.getName());
+	}
+
+	@Test
+	public void testParallelDisconnect() {
+		List<Book> books = new ArrayList<Book>();
+		for (int i = 0; i < 100; i++) {
+			Book book = new Book(String.valueOf(i));
+			persistenceContextHolder.save(book);
+			books.add(book);
+			// Shared references must be retained
+			books.add(book);
+		}
+
+		final AtomicInteger executed = new AtomicInteger();
+		ExecutorService executorService = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>()) {
+			@Override
+			protected void beforeExecute(Thread t, Runnable r) {
+				executed.incrementAndGet();
+			}
+		};
+		try {
+			dormancy.getConfig().setCloneObjects(true);
+			dormancy.getConfig().setExecutorService(executorService);
+			dormancy.getConfig().setParallelThreshold(2);
+
+			List<Book> disconnected = dormancy.disconnect(books);
+			// Chunks are only disconnected by worker threads if multiple processors are available
+			assertEquals(Runtime.getRuntime().availableProcessors() > 1, executed.get() > 0);
+			assertEquals(books.size(), disconnected.size());
+			for (int i = 0; i < books.size(); i += 2) {
+				assertNotSame(books.get(i), disconnected.get(i));
+				assertEquals(books.get(i).getTitle(), disconnected.get(i).getTitle());
+				assertEquals(false, isManaged(disconnected.get(i), persistenceUnitProvider));
+				assertSame(disconnected.get(i), disconnected.get(i + 1));
+			}
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	@Test
+	public void testParallelDisconnectFailure() throws Exception {
+		final List<Book> books = new ArrayList<Book>();
+		for (int i = 0; i < 100; i++) {
+			books.add(new Book(String.valueOf(i)));
+		}
+
+		final AtomicInteger active = new AtomicInteger();
+		Dormancy<Object, Object, Object> dormancy = new Dormancy<Object, Object, Object>(persistenceUnitProvider) {
+			@Nonnull
+			@Override
+			protected <R, O extends R> R createNewObject(@Nonnull O obj) {
+				if (obj == books.get(0)) {
+					throw new IllegalStateException();
+				}
+				active.incrementAndGet();
+				try {
+					Thread.sleep(5);
+					return super.createNewObject(obj);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				} finally {
+					active.decrementAndGet();
+				}
+			}
+		};
+		dormancy.initialize();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			dormancy.getConfig().setCloneObjects(true);
+			dormancy.getConfig().setExecutorService(executorService);
+			dormancy.getConfig().setParallelThreshold(2);
+			try {
+				dormancy.disconnectAll(books, dormancy.acquireContext(true));
+				fail(IllegalStateException.class.getSimpleName() + " expected");
+			} catch (IllegalStateException e) {
+				// The workers must not modify the context anymore after the operation failed
+				assertEquals(0, active.get());
+			}
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStreamClearInterval() {
+		for (String title : Arrays.asList("1", "2", "3")) {
+			persistenceContextHolder.save(new Book(title));
+		}
+		persistenceContextHolder.flush();
+
+		dormancy.getConfig().setStreamClearInterval(1);
+		// Results are streamed to the caller directly i.e., without serializing them
+		ProxyFactory proxyFactory = new ProxyFactory(genericService);
+		proxyFactory.addAdvice(dormancyAdvisor);
+		Iterator<Book> iterator = ((GenericService) proxyFactory.getProxy()).iterate(Book.class);
+		List<String> titles = new ArrayList<String>();
+		Book previous = null;
+		while (iterator.hasNext()) {
+			Book book = iterator.next();
+			if (previous != null) {
+				assertEquals(false, isManaged(previous, persistenceUnitProvider));
+			}
+			titles.add(book.getTitle());
+			previous = book;
+		}
+		assertEquals(true, titles.containsAll(Arrays.asList(refBook.getTitle(), "1", "2", "3")));
+	}
+
+	@Test
+	public void testEvictObjects() {
+		Employee c = genericService.get(Employee.class, refC.getId());
+		assertEquals(true, isManaged(c, persistenceUnitProvider));
+
+		dormancy.getConfig().setEvictObjects(true);
+		Employee disconnected = dormancy.disconnect(c);
+		assertEquals(refC.getName(), disconnected.getName());
+		assertEquals(false, isManaged(c, persistenceUnitProvider));
+	}
+
+	@Test
+	public void testClearInterval() {
+		for (String title : Arrays.asList("1", "2", "3")) {
+			persistenceContextHolder.save(new Book(title));
+		}
+		persistenceContextHolder.flush();
+		List<Book> books = genericService.list(Book.class);
+
+		dormancy.getConfig().setClearInterval(1);
+		List<Book> disconnected = dormancy.disconnect(books);
+		assertEquals(books.size(), disconnected.size());
+		for (int i = 0; i < books.size(); i++) {
+			assertEquals(books.get(i).getTitle(), disconnected.get(i).getTitle());
+			assertEquals(false, isManaged(books.get(i), persistenceUnitProvider));
+		}
+	}
+
+	@Test
+	public void testFlushStrategy() {
+		final AtomicInteger flushes = new AtomicInteger();
+		Dormancy<Object, Object, Object> dormancy = new Dormancy<Object, Object, Object>(persistenceUnitProvider) {
+			@Override
+			public void flush() {
+				flushes.incrementAndGet();
+				super.flush();
+			}
+		};
+		dormancy.initialize();
+		List<Book> books = genericService.list(Book.class);
+		for (String title : Arrays.asList("1", "2", "3")) {
+			Book book = new Book(title);
+			persistenceContextHolder.save(book);
+			books.add(book);
+		}
+
+		dormancy.disconnect(books);
+		assertEquals(0, flushes.getAndSet(0));
+
+		dormancy.getConfig().setFlushAutomatically(true);
+		assertEquals(DormancyConfiguration.FlushStrategy.OPERATION, dormancy.getConfig().getFlushStrategy());
+		dormancy.disconnect(books);
+		assertEquals(1, flushes.getAndSet(0));
+
+		dormancy.getConfig().setFlushStrategy(DormancyConfiguration.FlushStrategy.INTERVAL);
+		dormancy.getConfig().setFlushInterval(2);
+		dormancy.disconnect(books);
+		assertEquals((books.size() + 1) / 2, flushes.getAndSet(0));
+
+		dormancy.getConfig().setFlushStrategy(DormancyConfiguration.FlushStrategy.INVOCATION);
+		dormancy.disconnect(books);
+		assertEquals(0, flushes.getAndSet(0));
+
+		ProxyFactory proxyFactory = new ProxyFactory(genericService);
+		proxyFactory.addAdvice(new DormancyAdvisor(dormancy));
+		((GenericService) proxyFactory.getProxy()).list(Book.class);
+		assertEquals(1, flushes.getAndSet(0));
+
+		// Changes applied from parameters are flushed regardless of the result
+		((GenericService) proxyFactory.getProxy()).doNothing();
+		assertEquals(1, flushes.getAndSet(0));
+	}
+
+	@Test
+	public void testWarmUp() {
+		final Set<Class<?>> types = Collections.synchronizedSet(new HashSet<Class<?>>());
+		Dormancy<Object, Object, Object> dormancy = new Dormancy<Object, Object, Object>(persistenceUnitProvider) {
+			@Override
+			protected void warmUp(@Nonnull Class<?> type) {
+				super.warmUp(type);
+				types.add(type);
+			}
+		};
+		dormancy.initialize();
+		assertEquals(0, types.size());
+
+		dormancy.getConfig().setWarmUp(true);
+		dormancy.initialize();
+		assertTrue(types.contains(Book.class));
+		assertTrue(types.contains(Employee.class));
+		assertEquals(new HashSet<Class<?>>(dormancy.getUtils().getEntityClasses()), types);
+
+		Map<?, ?> copyPlanMap = (Map<?, ?>) ReflectionTestUtils.getField(dormancy.getUtils(), "copyPlanMap");
+		assertTrue(copyPlanMap.keySet().containsAll(types));
+	}
 }
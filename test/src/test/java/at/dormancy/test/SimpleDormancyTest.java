@@ -25,6 +25,8 @@ import at.dormancy.handler.BasicTypeHandler;
 import at.dormancy.handler.ObjectHandler;
 import at.dormancy.util.ClassLookup;
 import at.dormancy.util.PersistenceProviderUtils;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.NoOp;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.lang.StringUtils;
 import org.junit.Before;
@@ -310,6 +312,33 @@ public class SimpleDormancyTest extends AbstractDormancyTest {
 		assertEquals(map, describe(bt.getBoss()));
 	}
 
+	@Test
+	public void testSharedReferenceInHashedCollection() {
+		Employee boss = new Employee("boss", null);
+		boss.setId(1L);
+		Employee colleague = new Employee("colleague", boss);
+		colleague.setId(2L);
+		Employee employee = new Employee("employee", boss);
+		employee.setId(3L);
+		boss.setColleagues(new HashSet<Employee>(Collections.singleton(colleague)));
+		boss.setEmployees(new LinkedHashSet<Employee>(Collections.singleton(employee)));
+		employee.setColleagues(new HashSet<Employee>(Collections.singleton(colleague)));
+
+		// The colleague is hashed by the employee before it is disconnected completely by the boss
+		dormancy.getConfig().setCloneObjects(true);
+		try {
+			Employee disconnected = dormancy.disconnect(boss);
+			Employee disconnectedColleague = disconnected.getColleagues().iterator().next();
+			Employee disconnectedEmployee = disconnected.getEmployees().iterator().next();
+			assertNotSame(colleague, disconnectedColleague);
+			assertEquals(colleague.getId(), disconnectedColleague.getId());
+			assertSame(disconnectedColleague, disconnectedEmployee.getColleagues().iterator().next());
+			assertEquals(true, disconnectedEmployee.getColleagues().contains(disconnectedColleague));
+		} finally {
+			dormancy.getConfig().setCloneObjects(false);
+		}
+	}
+
 	@Test
 	public void testManipulateId() {
 		Long otherId = (Long) genericService.save(new Book("2"));
@@ -423,11 +452,42 @@ public class SimpleDormancyTest extends AbstractDormancyTest {
 		}
 		assertNotNull(book);
 		assertEquals(true, dormancy.getUtils().isProxy(book.getClass()));
+		assertSame(Book.class, dormancy.getUtils().getClass(book));
 		assertEquals(BeanUtils.describe(new Book()), BeanUtils.describe(dormancy.disconnect(book)));
 	}
 
+	@Test
+	public void testProxyClass() {
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(Book.class);
+		enhancer.setCallbackType(NoOp.class);
+		Class<?> proxyClass = enhancer.createClass();
+
+		assertEquals(true, dormancy.getUtils().isProxy(proxyClass));
+		assertSame(Book.class, dormancy.getUtils().getClass(proxyClass));
+		assertEquals(false, dormancy.getUtils().isProxy(Book.class));
+		assertSame(Book.class, dormancy.getUtils().getClass(Book.class));
+	}
+
 	@Test(expected = RuntimeException.class)
 	public void testInvalidIdentifier() throws Exception {
 		dormancy.getUtils().getIdentifierValue(dormancy.getUtils().getMetadata(Book.class), new Book());
 	}
+
+	@Test
+	public void testDeepGraph() {
+		Employee tr = null, db = null;
+		for (long i = 1; i <= 10000; i++) {
+			tr = new Employee("tr" + i, tr);
+			tr.setId(i);
+			db = new Employee("db" + i, db);
+			db.setId(i);
+		}
+
+		assertSame(tr, dormancy.disconnect(tr));
+		assertSame(db, dormancy.apply(tr, db));
+		for (Employee employee = db; employee != null; employee = employee.getBoss()) {
+			assertEquals("tr" + employee.getId(), employee.getName());
+		}
+	}
 }
@@ -1,5 +1,6 @@
 package at.dormancy.util;
 
+import at.dormancy.Dormancy;
 import at.dormancy.entity.Application;
 import at.dormancy.metadata.ObjectMetadata;
 import at.dormancy.metadata.resolver.MetadataResolver;
@@ -7,6 +8,7 @@ import at.dormancy.metadata.resolver.PropertyMetadataResolver;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 
 public class DormancyContextTest {
@@ -22,4 +24,45 @@ public class DormancyContextTest {
 		assertSame(stringMetadata, context.getObjectMetadata(String.class));
 		assertSame(applicationMetadata, context.getObjectMetadata(Application.class));
 	}
+
+	@Test
+	public void testReset() throws Exception {
+		ObjectMetadata stringMetadata = new PropertyMetadataResolver().getMetadata(String.class);
+		DormancyContext context = new DormancyContext(stringMetadata);
+		context.getAdjacencyMap().put("key", "value");
+		context.getPersistentObjects().put(String.class, 1L, "value");
+		assertEquals("value", context.getPersistentObject(String.class, 1L));
+		context.setPending("key", this);
+		assertSame(this, context.getPendingOwner("key"));
+
+		context.reset();
+		assertEquals(true, context.getAdjacencyMap().isEmpty());
+		assertEquals(null, context.getPendingOwner("key"));
+		assertEquals(null, context.getPersistentObject(String.class, 1L));
+		assertSame(stringMetadata, context.getObjectMetadata(String.class));
+	}
+
+	@Test
+	public void testPool() {
+		Dormancy<Object, Object, Object> dormancy = new Dormancy<Object, Object, Object>(null);
+		DormancyContext context = dormancy.acquireContext();
+		context.getAdjacencyMap().put("key", "value");
+
+		// Nested operations must not share the context
+		DormancyContext nested = dormancy.acquireContext();
+		assertNotSame(context, nested);
+		dormancy.releaseContext(nested);
+		dormancy.releaseContext(context);
+
+		assertSame(context, dormancy.acquireContext());
+		assertEquals(true, context.getAdjacencyMap().isEmpty());
+
+		// Concurrent contexts are pooled separately
+		DormancyContext concurrent = dormancy.acquireContext(true);
+		assertEquals(true, concurrent.isConcurrent());
+		dormancy.releaseContext(concurrent);
+		dormancy.releaseContext(context);
+		assertSame(concurrent, dormancy.acquireContext(true));
+		assertSame(context, dormancy.acquireContext());
+	}
 }
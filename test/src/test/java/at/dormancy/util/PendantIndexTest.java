@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Gregor Schauer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package at.dormancy.util;
+
+import at.dormancy.AbstractDormancyTest;
+import at.dormancy.entity.Book;
+import at.dormancy.entity.Employee;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Gregor Schauer
+ * @since 2.0.0
+ */
+public class PendantIndexTest extends AbstractDormancyTest {
+	@Test
+	public void testEquals() {
+		Employee a = employee(1L, "a");
+		Employee b = employee(2L, "b");
+		Employee c = employee(2L, "c");
+		List<Employee> candidates = Arrays.asList(a, null, b, c);
+		PendantIndex<?> index = dormancy.getUtils().createPendantIndex(candidates);
+
+		assertSame(b, index.remove(employee(2L, null)));
+		assertSame(c, index.remove(employee(2L, null)));
+		assertEquals(null, index.remove(employee(2L, null)));
+		assertSame(a, index.remove(employee(1L, null)));
+		assertEquals(null, index.remove(employee(3L, null)));
+		assertEquals(4, candidates.size());
+	}
+
+	@Test
+	public void testIdentifier() {
+		Book a = book(1L, "a");
+		Book b = book(2L, "b");
+		PendantIndex<?> index = dormancy.getUtils().createPendantIndex(Arrays.asList(a, b, new Book("new")));
+
+		assertEquals(null, index.remove(new Book("new")));
+		assertSame(b, index.remove(book(2L, null)));
+		assertEquals(null, index.remove(book(2L, null)));
+		assertSame(a, index.remove(book(1L, null)));
+		assertEquals(null, index.remove(employee(1L, null)));
+	}
+
+	@Test
+	public void testFindPendant() {
+		List<Object> candidates = Arrays.<Object>asList(book(1L, "a"), employee(1L, "a"), book(2L, "b"));
+		PendantIndex<?> index = dormancy.getUtils().createPendantIndex(candidates);
+		for (Object obj : Arrays.asList(book(2L, null), employee(1L, null), book(1L, null))) {
+			Object expected = dormancy.getUtils().findPendant(obj, new ArrayList<Object>(candidates));
+			assertSame(expected, index.remove(obj));
+		}
+	}
+
+	@Test
+	public void testMatchingStrategy() {
+		AbstractDormancyUtils<?, ?, ?, ?> utils = dormancy.getUtils();
+		assertSame(MatchingStrategy.EQUALS, utils.getMatchingStrategy(Employee.class));
+		assertSame(MatchingStrategy.EQUALS, utils.getMatchingStrategy(String.class));
+		assertSame(MatchingStrategy.EQUALS_WITHOUT_HASH_CODE, utils.getMatchingStrategy(Value.class));
+		assertSame(MatchingStrategy.IDENTIFIER, utils.getMatchingStrategy(Book.class));
+		assertSame(MatchingStrategy.IDENTITY, utils.getMatchingStrategy(Object.class));
+	}
+
+	@Test
+	public void testIdentity() {
+		Object a = new Object();
+		Object b = new Object();
+		PendantIndex<?> index = dormancy.getUtils().createPendantIndex(Arrays.asList(a, b));
+		assertEquals(null, index.remove(new Object()));
+		assertSame(b, index.remove(b));
+		assertEquals(null, index.remove(b));
+		assertSame(a, dormancy.getUtils().findPendant(a, new ArrayList<Object>(Arrays.asList(a, b))));
+	}
+
+	@Test
+	public void testEqualsWithoutHashCode() {
+		Value a = new Value("a");
+		Value b = new Value("b");
+		PendantIndex<?> index = dormancy.getUtils().createPendantIndex(Arrays.asList(a, b, new Value("b")));
+		assertSame(b, index.remove(new Value("b")));
+		assertEquals(null, index.remove(new Value("c")));
+		assertSame(a, index.remove(new Value("a")));
+	}
+
+	private static Employee employee(Long id, String name) {
+		Employee employee = new Employee(name, null);
+		employee.setId(id);
+		return employee;
+	}
+
+	private static Book book(Long id, String title) {
+		Book book = new Book(title);
+		book.setId(id);
+		return book;
+	}
+
+	static class Value {
+		final String value;
+
+		Value(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Value && value.equals(((Value) obj).value);
+		}
+	}
+}